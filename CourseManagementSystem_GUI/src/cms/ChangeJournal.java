@@ -0,0 +1,258 @@
+package cms;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Append-only change log (changes.log) written next to the CSV files.
+ *
+ * CourseManager appends one short record per change, so a single edit costs one
+ * small write instead of rewriting a whole CSV. DataStore replays the log after
+ * loading and compacts it into the CSVs from time to time.
+ *
+ * Records hold the resulting values (not deltas), so replaying a record that is
+ * already reflected in the CSVs is harmless:
+ *   S+,id,name,age,major,score   SU,id,name,age,major   SC,id,score   S-,id
+ *   T+,id,name,age,department
+ *   C+,id,name,capacity,instructor,roster   CU,id,name,capacity,instructor   C-,id
+ *   E+,studentId,courseId,seq   E-,studentId,courseId,seq
+ *
+ * Enrollments into one course are not serialized, so their E+/E- records can reach
+ * the log out of order. seq is the course's roster sequence number (see Course);
+ * replay collects enrollment records and applies each course's in seq order. Records
+ * from older logs have no seq and keep their order. An "L" record marks where a later
+ * run started appending, since sequence numbers start again in every run.
+ *
+ * While data is still loading the GUI already accepts edits; the log holds their records
+ * in memory (see hold) and writes them once the earlier records have been replayed.
+ */
+public class ChangeJournal implements Closeable {
+    private final String filename;
+    private BufferedWriter out;
+    private int records;
+    private final StringBuilder line = new StringBuilder(64); // record being written, reused
+    private char[] chars = new char[64];
+    private List<String> held; // records made before release(), in order; null once written
+
+    public ChangeJournal(String filename) {
+        this.filename = filename;
+    }
+
+    /** Number of records in the log since it was last compacted. */
+    public synchronized int size() { return records; }
+
+    synchronized void append(String record) {
+        line.setLength(0);
+        line.append(record);
+        writeLine();
+    }
+
+    /** Appends "SC,studentId,score" without building a String for the record. */
+    synchronized void appendScore(String studentId, double score) {
+        line.setLength(0);
+        line.append("SC,").append(studentId).append(',').append(score);
+        writeLine();
+    }
+
+    /**
+     * Keeps new records in memory instead of writing them, until release(). Lets the log be
+     * attached before loading, so edits made while loading are kept, but written after the
+     * records of earlier runs.
+     */
+    synchronized void hold() {
+        if (held == null) held = new ArrayList<>();
+    }
+
+    /** Re-applies the logged changes to a freshly loaded manager. Returns the record count. */
+    public int replay(CourseManager manager) {
+        File f = new File(filename);
+        if (!f.exists()) return 0;
+        LoadReport report = new LoadReport();
+        int applied = 0;
+        try (FileReader in = new FileReader(f)) {
+            applied = replay(in, manager, report);
+        } catch (IOException e) {
+            System.out.println("Error reading change log " + filename + ": " + e.getMessage());
+        }
+        report.print("change log", filename);
+        records = applied + report.malformedCount();
+        if (applied > 0) System.out.println("Replayed " + applied + " changes from " + filename);
+        return applied;
+    }
+
+    /**
+     * Writes the held records after the ones already in the file and applies them to the
+     * manager again (it made them before the file was replayed), so memory and file agree
+     * on the order. The manager must not log while this runs.
+     */
+    synchronized void release(CourseManager manager) {
+        List<String> records = held;
+        held = null;
+        if (records == null || records.isEmpty()) return;
+        try {
+            replay(new StringReader(String.join("\n", records)), manager, new LoadReport());
+        } catch (IOException e) {
+            System.out.println("Error applying held changes: " + e.getMessage()); // not reading a file, cannot happen
+        }
+        if (this.records > 0) append("L");
+        for (String record : records) append(record);
+    }
+
+    private int replay(Reader in, CourseManager manager, LoadReport report) throws IOException {
+        int applied = 0;
+        List<LoggedEnrollment> enrollments = new ArrayList<>();
+        try (CsvReader r = new CsvReader(in)) {
+            while (r.next()) {
+                String type = r.field(0);
+                boolean enroll = "E+".equals(type);
+                if (enroll || "E-".equals(type)) {
+                    if (r.fieldCount() < 3) report.malformed(r.lineNumber());
+                    else enrollments.add(new LoggedEnrollment(enroll, r.field(1), r.field(2),
+                            r.fieldCount() >= 4 ? r.intField(3, -1) : -1));
+                    continue;
+                }
+                // score and course detail changes can be logged between out-of-order enrollment
+                // records and do not depend on rosters; everything else is logged under the
+                // manager's write lock, so the enrollments before it are complete
+                if (!"SC".equals(type) && !"CU".equals(type)) applied += applyEnrollments(enrollments, manager);
+                if ("L".equals(type)) continue;
+                if (apply(r, manager)) applied++;
+                else report.malformed(r.lineNumber());
+            }
+            applied += applyEnrollments(enrollments, manager);
+        }
+        return applied;
+    }
+
+    /** Empties the log once its changes are in the CSV files. */
+    public synchronized void truncate() {
+        try {
+            close();
+            new FileWriter(filename, false).close();
+            records = 0;
+        } catch (IOException e) {
+            System.out.println("Error truncating change log " + filename + ": " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+
+    private static boolean apply(CsvReader r, CourseManager m) {
+        int n = r.fieldCount();
+        switch (r.field(0)) {
+            case "S+":
+                if (n < 6) return false;
+                m.addStudent(new Student(r.field(1), r.field(2), r.intField(3, 0), r.field(4), r.doubleField(5, 0.0)));
+                return true;
+            case "SU":
+                if (n < 5) return false;
+                m.updateStudent(r.field(1), r.field(2), r.intField(3, 0), r.field(4));
+                return true;
+            case "SC": {
+                if (n < 3) return false;
+                Student s = m.findStudentById(r.field(1));
+                if (s != null) m.adjustScore(s, r.doubleField(2, 0.0) - s.getPerformanceScore());
+                return true;
+            }
+            case "S-":
+                if (n < 2) return false;
+                m.deleteStudent(r.field(1));
+                return true;
+            case "T+":
+                if (n < 5) return false;
+                m.addStaff(new Staff(r.field(1), r.field(2), r.intField(3, 0), r.field(4)));
+                return true;
+            case "C+": {
+                if (n < 5) return false;
+                Course c = new Course(r.field(1), r.field(2), r.intField(3, 0), r.field(4));
+                if (n >= 6 && !r.isEmpty(5)) {
+                    List<String> roster = new ArrayList<>();
+                    r.splitField(5, ';', roster::add);
+                    c.restoreEnrollments(roster);
+                }
+                m.addCourse(c);
+                return true;
+            }
+            case "CU":
+                if (n < 5) return false;
+                m.updateCourse(r.field(1), r.field(2), r.intField(3, 1), r.field(4));
+                return true;
+            case "C-":
+                if (n < 2) return false;
+                m.deleteCourse(r.field(1));
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    // Applies the collected E+/E- records, each course's in seq order, and clears the list
+    private static int applyEnrollments(List<LoggedEnrollment> enrollments, CourseManager m) {
+        if (enrollments.isEmpty()) return 0;
+        Map<String, List<Integer>> positions = new HashMap<>(); // course -> its records' indexes
+        for (int i = 0; i < enrollments.size(); i++) {
+            positions.computeIfAbsent(Ids.key(enrollments.get(i).courseId), k -> new ArrayList<>()).add(i);
+        }
+        LoggedEnrollment[] ordered = enrollments.toArray(new LoggedEnrollment[0]);
+        for (List<Integer> at : positions.values()) {
+            List<LoggedEnrollment> course = new ArrayList<>(at.size());
+            for (int i : at) course.add(enrollments.get(i));
+            course.sort(Comparator.comparingInt(e -> e.seq)); // stable: records without seq (-1) keep their order
+            for (int k = 0; k < at.size(); k++) ordered[at.get(k)] = course.get(k);
+        }
+        for (LoggedEnrollment e : ordered) m.replayEnrollment(e.studentId, e.courseId, e.enroll, e.seq);
+        enrollments.clear();
+        return ordered.length;
+    }
+
+    private static final class LoggedEnrollment {
+        final boolean enroll;
+        final String studentId;
+        final String courseId;
+        final int seq;
+
+        LoggedEnrollment(boolean enroll, String studentId, String courseId, int seq) {
+            this.enroll = enroll;
+            this.studentId = studentId;
+            this.courseId = courseId;
+            this.seq = seq;
+        }
+    }
+
+    // Writes the record in {@code line}; caller holds the lock
+    private void writeLine() {
+        if (held != null) {
+            held.add(line.toString());
+            return;
+        }
+        int len = line.length();
+        if (chars.length < len) chars = new char[len * 2];
+        line.getChars(0, len, chars, 0);
+        try {
+            if (out == null) out = new BufferedWriter(new FileWriter(filename, true));
+            out.write(chars, 0, len);
+            out.newLine();
+            out.flush(); // one write per record, so a crash loses at most the record being written
+            records++;
+        } catch (IOException e) {
+            System.out.println("Error writing change log " + filename + ": " + e.getMessage());
+        }
+    }
+}
@@ -1,23 +1,57 @@
 package cms;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Course class stores course details & enrolled student IDs.
+ *
+ * The roster maps int student ID codes (see StringDictionary) to the sequence number of
+ * their enrollment. A standalone course encodes IDs in a dictionary of its own; once
+ * added to a CourseManager it uses the manager's, so codes match across courses.
+ *
+ * Enrolling takes no lock: a seat is reserved by CAS on one atomic word holding the
+ * number of students and a sequence number (never above capacity), then the student is
+ * added to a concurrent map. Every change of the count gets the next sequence number, so
+ * the order of E+/E- records in the change log can be restored on replay, and a full
+ * course turns students away after a single read.
  */
 public class Course {
     private String courseId;
-    private String courseName;
-    private int capacity;
-    private String instructorId; // staff id
-    private ArrayList<String> enrolledStudentIds;
+    private volatile String courseName;
+    private volatile int capacity;
+    private volatile String instructorId; // staff id
+    private int ordinal = -1; // ID code in the CourseManager it was added to
+
+    // high 32 bits: sequence number of the last roster change; low 32 bits: seats taken,
+    // including reservations whose roster entry is still being added or removed
+    private final AtomicLong seats = new AtomicLong();
+    // student ID code -> sequence number of the enrollment (gives the enrollment order)
+    private volatile ConcurrentHashMap<Integer, Integer> roster = new ConcurrentHashMap<>();
+    private volatile StringDictionary studentIds = new StringDictionary(true);
+
+    private final AtomicLong rosterVersion = new AtomicLong(); // bumped after every roster change
+    private volatile CachedBitmap bitmap; // roster as a bitmap, for set queries across courses
+
+    private static final class CachedBitmap {
+        final long rosterVersion;
+        final StudentBitmap students;
+
+        CachedBitmap(long rosterVersion, StudentBitmap students) {
+            this.rosterVersion = rosterVersion;
+            this.students = students;
+        }
+    }
 
     public Course(String courseId, String courseName, int capacity, String instructorId) {
         this.courseId = courseId.trim();
         this.courseName = courseName.trim();
         this.capacity = Math.max(1, capacity);
         this.instructorId = (instructorId == null ? "" : instructorId.trim());
-        this.enrolledStudentIds = new ArrayList<>();
     }
 
     public String getCourseId() { return courseId; }
@@ -25,39 +59,174 @@ public class Course {
     public int getCapacity() { return capacity; }
     public String getInstructorId() { return instructorId; }
 
-    public ArrayList<String> getEnrolledStudentIds() { return enrolledStudentIds; }
+    public void setCourseName(String courseName) { this.courseName = courseName.trim(); }
+    public void setCapacity(int capacity) { this.capacity = Math.max(1, capacity); }
+    public void setInstructorId(String instructorId) { this.instructorId = (instructorId == null ? "" : instructorId.trim()); }
+
+    int ordinal() { return ordinal; }
+    void setOrdinal(int ordinal) { this.ordinal = ordinal; }
+
+    /** Copy of the enrolled student IDs, in enrollment order. */
+    public Collection<String> getEnrolledStudentIds() {
+        StringDictionary ids = studentIds;
+        long[] entries = orderedEntries();
+        ArrayList<String> list = new ArrayList<>(entries.length);
+        for (long e : entries) list.add(ids.decode((int) e));
+        return list;
+    }
+
+    // Copy of the student ID codes in enrollment order
+    int[] rosterCodes() {
+        long[] entries = orderedEntries();
+        int[] codes = new int[entries.length];
+        for (int i = 0; i < codes.length; i++) codes[i] = (int) entries[i];
+        return codes;
+    }
+
+    // The roster as a bitmap of student ID codes, rebuilt only after the roster changed
+    StudentBitmap rosterBitmap() {
+        long version = rosterVersion.get(); // read before the roster, see SortedViewCache.get
+        CachedBitmap cached = bitmap;
+        if (cached != null && cached.rosterVersion == version) return cached.students;
+        StudentBitmap students = StudentBitmap.of(rosterCodes());
+        bitmap = new CachedBitmap(version, students);
+        return students;
+    }
+
+    public int getEnrolledCount() { return (int) seats.get(); }
+
+    public boolean isEnrolled(String studentId) {
+        int code = studentIds.find(studentId);
+        return code >= 0 && roster.containsKey(code);
+    }
+
+    public boolean isFull() { return (int) seats.get() >= capacity; }
+
+    public boolean enroll(String studentId) { return addToRoster(studentId) >= 0; }
 
-    public boolean isFull() { return enrolledStudentIds.size() >= capacity; }
+    public boolean removeEnrollment(String studentId) { return removeFromRoster(studentId) >= 0; }
 
-    public boolean enroll(String studentId) {
-        if (studentId == null || studentId.isBlank()) return false;
-        if (isFull()) return false;
-        if (enrolledStudentIds.contains(studentId)) return false;
-        enrolledStudentIds.add(studentId);
-        return true;
+    /**
+     * Enrolls the student if there is a free seat and returns the sequence number of the
+     * change (for the E+ record), or -1 if the course is full or the student already enrolled.
+     */
+    int addToRoster(String studentId) {
+        if (studentId == null || studentId.isBlank()) return -1;
+        int code = studentIds.encode(studentId);
+        if (roster.containsKey(code)) return -1;
+        long s;
+        do {
+            s = seats.get();
+            if ((int) s >= capacity) return -1;
+        } while (!seats.compareAndSet(s, next(s, 1)));
+        int seq = sequence(next(s, 1));
+        if (roster.putIfAbsent(code, seq) != null) { // enrolled meanwhile by another thread
+            change(-1);
+            return -1;
+        }
+        rosterVersion.incrementAndGet();
+        return seq;
+    }
+
+    /** Unenrolls the student; returns the sequence number of the change (for the E- record), or -1. */
+    int removeFromRoster(String studentId) {
+        int code = studentIds.find(studentId);
+        if (code < 0 || roster.remove(code) == null) return -1;
+        int seq = change(-1);
+        rosterVersion.incrementAndGet();
+        return seq;
     }
 
-    public boolean removeEnrollment(String studentId) {
-        return enrolledStudentIds.remove(studentId);
+    // Used when loading saved rosters: keeps the roster as stored, even above capacity
+    // (duplicates are dropped). Returns the number of students added.
+    int restoreEnrollments(Collection<String> studentIdList) {
+        int added = 0;
+        for (String sid : studentIdList) {
+            if (sid == null || sid.isBlank()) continue;
+            int code = studentIds.encode(sid);
+            if (roster.containsKey(code)) continue;
+            if (roster.putIfAbsent(code, change(1)) == null) added++;
+            else change(-1);
+        }
+        if (added > 0) rosterVersion.incrementAndGet();
+        return added;
+    }
+
+    /** Makes later roster changes get sequence numbers above {@code seq} (after a replay). */
+    void advanceSequence(int seq) {
+        long s;
+        do {
+            s = seats.get();
+            if (sequence(s) >= seq) return;
+        } while (!seats.compareAndSet(s, ((long) seq << 32) | (s & 0xFFFFFFFFL)));
+    }
+
+    /**
+     * Switches the roster to the manager's student ID codes (called by CourseManager.addCourse,
+     * before the course is shared). Enrollment order is kept.
+     */
+    void useStudentIds(StringDictionary dictionary) {
+        StringDictionary old = studentIds;
+        if (dictionary == old) return;
+        ConcurrentHashMap<Integer, Integer> recoded = new ConcurrentHashMap<>();
+        for (Map.Entry<Integer, Integer> e : roster.entrySet()) {
+            recoded.put(dictionary.encode(old.decode(e.getKey())), e.getValue());
+        }
+        roster = recoded;
+        studentIds = dictionary;
+        rosterVersion.incrementAndGet();
     }
 
+    // Changes whenever a student is added to or removed from the roster (for caches of derived data)
+    long getRosterVersion() { return rosterVersion.get(); }
+
     // CSV: courseId,courseName,capacity,instructorId,studentA;studentB;studentC
     public String toCSV() {
         StringBuilder sb = new StringBuilder();
         sb.append(courseId).append(",").append(escapeComma(courseName)).append(",").append(capacity)
           .append(",").append(instructorId).append(",");
-        for (int i = 0; i < enrolledStudentIds.size(); i++) {
-            if (i > 0) sb.append(";");
-            sb.append(enrolledStudentIds.get(i));
+        boolean first = true;
+        for (String sid : getEnrolledStudentIds()) {
+            if (!first) sb.append(";");
+            sb.append(sid);
+            first = false;
         }
         return sb.toString();
     }
 
     private String escapeComma(String s) { return s == null ? "" : s.replace(",", ""); }
 
+    // Roster entries as (sequence << 32 | code), sorted: enrollment order
+    private long[] orderedEntries() {
+        long[] entries = new long[roster.size() + 16];
+        int n = 0;
+        for (Map.Entry<Integer, Integer> e : roster.entrySet()) {
+            if (n == entries.length) entries = Arrays.copyOf(entries, n * 2); // grew while copying
+            entries[n++] = ((long) e.getValue() << 32) | e.getKey();
+        }
+        entries = Arrays.copyOf(entries, n);
+        Arrays.sort(entries);
+        return entries;
+    }
+
+    // Adds delta to the seats taken without checking capacity; returns the change's sequence number
+    private int change(int delta) {
+        long s;
+        do {
+            s = seats.get();
+        } while (!seats.compareAndSet(s, next(s, delta)));
+        return sequence(next(s, delta));
+    }
+
+    private static long next(long s, int delta) {
+        return ((long) (sequence(s) + 1) << 32) | (((int) s + delta) & 0xFFFFFFFFL);
+    }
+
+    private static int sequence(long s) { return (int) (s >>> 32); }
+
     @Override
     public String toString() {
         return courseId + " | " + courseName + " | Capacity: " + capacity + " | Instructor: " + instructorId +
-               " | Enrolled: " + enrolledStudentIds.size();
+               " | Enrolled: " + getEnrolledCount();
     }
 }
@@ -1,164 +1,997 @@
 package cms;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Queue;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.IntStream;
 
 /**
  * CourseManager contains collections and operations (CRUD, enrollments, evaluations).
+ *
+ * Safe to use from several threads (GUI, background loading, batch jobs):
+ * adding, deleting and renaming take the write lock of {@code structure}; changes
+ * to a single entity (score, roster, course details) take the read lock plus the
+ * stripe lock for its ID, so they run in parallel unless they hit the same stripe.
+ * Enrolling and unenrolling hold only the student's stripe; the course's seats are
+ * reserved lock-free (see Course).
+ * Lookups by ID need no lock, and the getAll/sorted methods return snapshot copies.
  */
 public class CourseManager {
-    private ArrayList<Student> students = new ArrayList<>();
-    private ArrayList<Staff> staff = new ArrayList<>();
-    private ArrayList<Course> courses = new ArrayList<>();
+    private final ArrayList<Student> students = new ArrayList<>();
+    private final ArrayList<Staff> staff = new ArrayList<>();
+    private final ArrayList<Course> courses = new ArrayList<>();
 
-    // Evaluation queue (FIFO) commands like "R,S001,5.0" or "P,S001,2.5"
-    private Queue<String> evaluationQueue = new LinkedList<>();
+    // ID codes (see StringDictionary) for this manager's entities, and shared major/department strings
+    private final StringDictionary studentIds = new StringDictionary(true);
+    private final StringDictionary staffIds = new StringDictionary(true);
+    private final StringDictionary courseIds = new StringDictionary(true);
+    private final StringDictionary majors = new StringDictionary(false);
+    private final StringDictionary departments = new StringDictionary(false);
+
+    // Primary-key indexes (ID code -> entity) kept in sync with the lists above
+    private final OrdinalTable<Student> studentIndex = new OrdinalTable<>();
+    private final OrdinalTable<Staff> staffIndex = new OrdinalTable<>();
+    private final OrdinalTable<Course> courseIndex = new OrdinalTable<>();
+
+    // Reverse index: student ID code -> courses whose roster contains it, in enrollment order.
+    // The arrays are never modified once published (copy-on-write), so readers need no lock.
+    private final OrdinalTable<Course[]> studentCourses = new OrdinalTable<>();
+
+    // Lists, name index and membership changes: write lock. Per-entity changes: read lock + stripe.
+    private final ReentrantReadWriteLock structure = new ReentrantReadWriteLock();
+    private static final int STRIPES = 64;
+    private final Object[] stripes = new Object[STRIPES];
+    {
+        for (int i = 0; i < STRIPES; i++) stripes[i] = new Object();
+    }
+
+    // Secondary index for name searches (exact, prefix and per-word)
+    private StudentNameIndex studentNames = new StudentNameIndex();
+
+    // Students by score, updated on every score change (leaderboards, rank, percentile)
+    private final ScoreIndex scoreIndex = new ScoreIndex();
+
+    // Scores, ages and majors as primitive arrays by ID code, for analytics scans
+    private final StudentColumns columns = new StudentColumns();
+
+    // Sorted lists handed to the views, rebuilt only after a change that can affect their order
+    private final SortedViewCache<StudentSort, Student> studentViews = new SortedViewCache<>(StudentSort.class);
+    private final SortedViewCache<StaffSort, Staff> staffViews = new SortedViewCache<>(StaffSort.class);
+    private final SortedViewCache<CourseSort, Course> courseViews = new SortedViewCache<>(CourseSort.class);
+    private final AtomicLong studentsVersion = new AtomicLong(); // adds, deletes, renames (scores: scoreIndex)
+    private final AtomicLong staffVersion = new AtomicLong();
+    private final AtomicLong coursesVersion = new AtomicLong();  // any course or roster change
+
+    // Joined enrolled-student names per course for the course table (keyed on studentsVersion)
+    private final RosterNameCache rosterNames = new RosterNameCache();
+
+    // Data sets changed since they were last written to CSV, and the optional change log
+    private final EnumSet<DataSet> dirty = EnumSet.noneOf(DataSet.class);
+    private ChangeJournal journal;
+
+    // Evaluation queue (FIFO); commands like "R,S001,5.0" are parsed once when scheduled
+    private final EvaluationQueue evaluationQueue = new EvaluationQueue();
+    private EvaluationLog evaluationLog; // optional persistent copy of the queue
+
+    // Queue length from which processAllEvaluations spreads the work over all cores
+    static final int PARALLEL_EVALUATION_THRESHOLD = 10_000;
 
     // ---------------- Student & Staff ----------------
-    public void addStudent(Student s) {
-        if (findStudentById(s.getId()) == null) students.add(s);
+    public void addStudent(Student s) { addStudent(s, true); }
+
+    // record: false for rows loaded from the files, which are saved already (no log record, not dirty)
+    private void addStudent(Student s, boolean record) {
+        structure.writeLock().lock();
+        try {
+            int code = studentIds.encode(s.getId());
+            if (studentIndex.get(code) == null) {
+                s.setOrdinal(code);
+                studentIds.respell(code, s.getId()); // rosters show the ID as the student has it
+                s.setMajor(majors.canonical(s.getMajor()));
+                studentIndex.set(code, s);
+                students.add(s);
+                studentNames.add(s);
+                scoreIndex.add(s);
+                columns.put(code, s.getPerformanceScore(), s.getAge(), majors.encode(s.getMajor()));
+                s.setRemoved(false);
+                studentsVersion.incrementAndGet();
+                if (record) changed(DataSet.STUDENTS, "S+," + FileUtil.studentLine(s));
+            }
+        } finally {
+            structure.writeLock().unlock();
+        }
     }
 
     public Student findStudentById(String id) {
-        for (Student s : students) if (s.getId().equalsIgnoreCase(id)) return s;
-        return null;
+        if (id == null) return null;
+        return studentIndex.get(studentIds.find(id));
     }
 
     public List<Student> findStudentsByName(String name) {
-        ArrayList<Student> res = new ArrayList<>();
-        for (Student s : students) if (s.getName().equalsIgnoreCase(name)) res.add(s);
-        return res;
+        structure.readLock().lock();
+        try {
+            return studentNames.exact(name);
+        } finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    /**
+     * Name search for the search screens: exact matches, then names starting with
+     * the query, then names containing a word that starts with it. At most {@code limit} results.
+     */
+    public List<Student> searchStudentsByName(String query, int limit) {
+        structure.readLock().lock();
+        try {
+            return studentNames.search(query, limit);
+        } finally {
+            structure.readLock().unlock();
+        }
     }
 
     public boolean updateStudent(String id, String newName, Integer newAge, String newMajor) {
-        Student s = findStudentById(id);
-        if (s == null) return false;
-        if (newName != null && !newName.isBlank()) s.setName(newName);
-        if (newAge != null) s.setAge(newAge);
-        if (newMajor != null) s.setMajor(newMajor);
-        return true;
+        structure.writeLock().lock(); // a rename changes the name index
+        try {
+            Student s = findStudentById(id);
+            if (s == null) return false;
+            if (newName != null && !newName.isBlank()) {
+                studentNames.remove(s);
+                s.setName(newName);
+                studentNames.add(s);
+                studentsVersion.incrementAndGet();
+            }
+            if (newAge != null) s.setAge(newAge);
+            if (newMajor != null) s.setMajor(majors.canonical(newMajor.trim()));
+            columns.put(s.ordinal(), s.getPerformanceScore(), s.getAge(), majors.encode(s.getMajor()));
+            changed(DataSet.STUDENTS, "SU," + s.getId() + "," + FileUtil.sanitize(s.getName()) + "," + s.getAge()
+                    + "," + FileUtil.sanitize(s.getMajor()));
+            return true;
+        } finally {
+            structure.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Adds {@code delta} to the student's score (negative for penalties; the score never
+     * drops below 0). All score changes go through here so they are saved and logged.
+     */
+    public double adjustScore(Student s, double delta) {
+        structure.readLock().lock();
+        try {
+            synchronized (stripeFor(s.getId())) {
+                s.setPerformanceScore(s.getPerformanceScore() + delta);
+                scoreIndex.update(s);
+                updateScoreColumn(s);
+                recordScore(s);
+                return s.getPerformanceScore();
+            }
+        } finally {
+            structure.readLock().unlock();
+        }
     }
 
     public boolean deleteStudent(String id) {
-        Student s = findStudentById(id);
-        if (s == null) return false;
-        // remove student from all courses
-        for (Course c : courses) c.removeEnrollment(id);
-        return students.remove(s);
+        structure.writeLock().lock();
+        try {
+            Student s = findStudentById(id);
+            if (s == null) return false;
+            // remove student from the courses they are enrolled in
+            Course[] enrolledIn = studentCourses.get(s.ordinal());
+            studentCourses.set(s.ordinal(), null);
+            if (enrolledIn != null) for (Course c : enrolledIn) c.removeEnrollment(id);
+            studentIndex.set(s.ordinal(), null);
+            studentNames.remove(s);
+            scoreIndex.remove(s);
+            columns.remove(s.ordinal());
+            students.remove(s);
+            s.setRemoved(true);
+            studentsVersion.incrementAndGet();
+            if (enrolledIn != null) {
+                coursesVersion.incrementAndGet();
+                changed(DataSet.COURSES, null);
+            }
+            changed(DataSet.STUDENTS, "S-," + s.getId());
+            return true;
+        } finally {
+            structure.writeLock().unlock();
+        }
     }
 
-    public List<Student> getStudentsSortedByName() {
-        List<Student> list = new ArrayList<>(students);
-        list.sort((a, b) -> a.getName().compareToIgnoreCase(b.getName()));
-        return list;
+    /**
+     * All students in the given order, as a read-only list. The list is cached and
+     * handed out again until a change affects that order.
+     */
+    public List<Student> getStudentsSorted(StudentSort by) {
+        switch (by) {
+            case SCORE:
+                return studentViews.get(by, scoreIndex.version(), scoreIndex::toList);
+            case NAME:
+                return studentViews.get(by, studentsVersion.get(),
+                        () -> SortedViewCache.sorted(getAllStudents(), Student::getName, String.CASE_INSENSITIVE_ORDER));
+            default:
+                return studentViews.get(by, studentsVersion.get(),
+                        () -> SortedViewCache.sorted(getAllStudents(), Student::getId, String.CASE_INSENSITIVE_ORDER));
+        }
     }
-    
-    public List<Student> getStudentsSortedByScore() {
-        List<Student> list = new ArrayList<>(students);
-        list.sort((a, b) -> Double.compare(b.getPerformanceScore(), a.getPerformanceScore()));
-        return list;
-    }    
 
-    public void addStaff(Staff st) {
-        if (findStaffById(st.getId()) == null) staff.add(st);
+    public List<Student> getStudentsSortedByName() { return getStudentsSorted(StudentSort.NAME); }
+
+    /** All students, highest score first (read from the score index, no sorting). */
+    public List<Student> getStudentsSortedByScore() { return getStudentsSorted(StudentSort.SCORE); }
+
+    public int getStudentCount() { return scoreIndex.size(); }
+
+    /** The {@code k} highest-scoring students, best first. */
+    public List<Student> getTopStudents(int k) { return scoreIndex.top(k); }
+
+    /** The {@code k} lowest-scoring students, lowest first. */
+    public List<Student> getBottomStudents(int k) { return scoreIndex.bottom(k); }
+
+    /** Position on the leaderboard (1 = best; students with equal scores share a rank), 0 if unknown. */
+    public int getScoreRank(Student s) { return scoreIndex.rank(s); }
+
+    /** Percentage of the other students with a lower score, -1 if unknown. */
+    public double getScorePercentile(Student s) { return scoreIndex.percentile(s); }
+
+    public void addStaff(Staff st) { addStaff(st, true); }
+
+    private void addStaff(Staff st, boolean record) {
+        structure.writeLock().lock();
+        try {
+            int code = staffIds.encode(st.getId());
+            if (staffIndex.get(code) == null) {
+                st.setOrdinal(code);
+                staffIds.respell(code, st.getId());
+                st.setDepartment(departments.canonical(st.getDepartment()));
+                staffIndex.set(code, st);
+                staff.add(st);
+                staffVersion.incrementAndGet();
+                if (record) changed(DataSet.STAFF, "T+," + FileUtil.staffLine(st));
+            }
+        } finally {
+            structure.writeLock().unlock();
+        }
     }
 
     public Staff findStaffById(String id) {
-        for (Staff st : staff) if (st.getId().equalsIgnoreCase(id)) return st;
-        return null;
+        if (id == null) return null;
+        return staffIndex.get(staffIds.find(id));
+    }
+
+    /** All staff in the given order, as a cached read-only list (see getStudentsSorted). */
+    public List<Staff> getStaffSorted(StaffSort by) {
+        return staffViews.get(by, staffVersion.get(), () -> {
+            switch (by) {
+                case NAME:
+                    return SortedViewCache.sorted(getAllStaff(), Staff::getName, String.CASE_INSENSITIVE_ORDER);
+                case DEPARTMENT:
+                    return SortedViewCache.sorted(getAllStaff(), st -> st.getDepartment() == null ? "" : st.getDepartment(),
+                            String.CASE_INSENSITIVE_ORDER);
+                default:
+                    return SortedViewCache.sorted(getAllStaff(), Staff::getId, String.CASE_INSENSITIVE_ORDER);
+            }
+        });
     }
 
     // ---------------- Courses & Enrollments ----------------
-    public void addCourse(Course c) {
-        if (findCourseById(c.getCourseId()) == null) courses.add(c);
+    public void addCourse(Course c) { addCourse(c, true); }
+
+    private void addCourse(Course c, boolean record) {
+        structure.writeLock().lock();
+        try {
+            int code = courseIds.encode(c.getCourseId());
+            if (courseIndex.get(code) == null) {
+                c.setOrdinal(code);
+                courseIds.respell(code, c.getCourseId());
+                c.useStudentIds(studentIds);
+                courseIndex.set(code, c);
+                courses.add(c);
+                indexRoster(c);
+                coursesVersion.incrementAndGet();
+                if (record) changed(DataSet.COURSES, "C+," + c.toCSV());
+            }
+        } finally {
+            structure.writeLock().unlock();
+        }
     }
 
     public Course findCourseById(String id) {
-        for (Course c : courses) if (c.getCourseId().equalsIgnoreCase(id)) return c;
-        return null;
+        if (id == null) return null;
+        return courseIndex.get(courseIds.find(id));
+    }
+
+    /** All courses in the given order, as a cached read-only list (see getStudentsSorted). */
+    public List<Course> getCoursesSorted(CourseSort by) {
+        return courseViews.get(by, coursesVersion.get(), () -> {
+            switch (by) {
+                case NAME:
+                    return SortedViewCache.sorted(getAllCourses(), Course::getCourseName, String.CASE_INSENSITIVE_ORDER);
+                case ENROLLED:
+                    return SortedViewCache.sorted(getAllCourses(), Course::getEnrolledCount, Comparator.<Integer>reverseOrder());
+                default:
+                    return SortedViewCache.sorted(getAllCourses(), Course::getCourseId, String.CASE_INSENSITIVE_ORDER);
+            }
+        });
     }
 
     public boolean updateCourse(String id, String newName, Integer newCapacity, String newInstructorId) {
-        Course c = findCourseById(id);
-        if (c == null) return false;
-        if (newName != null && !newName.isBlank()) {
-            // reflect by replacing courseName via reflection? simpler: create new Course copy
-            // But we keep it simple: remove and add new with same enrollments
-            ArrayList<String> enrolled = c.getEnrolledStudentIds();
-            int cap = (newCapacity == null ? c.getCapacity() : newCapacity);
-            String instr = (newInstructorId == null ? c.getInstructorId() : newInstructorId);
-            Course newC = new Course(id, (newName == null ? c.getCourseName() : newName), cap, instr);
-            newC.getEnrolledStudentIds().addAll(enrolled);
-            courses.remove(c);
-            courses.add(newC);
-        } else {
-            if (newCapacity != null || newInstructorId != null) {
-                int cap = (newCapacity == null ? c.getCapacity() : newCapacity);
-                String instr = (newInstructorId == null ? c.getInstructorId() : newInstructorId);
-                Course newC = new Course(id, c.getCourseName(), cap, instr);
-                newC.getEnrolledStudentIds().addAll(c.getEnrolledStudentIds());
-                courses.remove(c);
-                courses.add(newC);
+        structure.readLock().lock();
+        try {
+            Course c = findCourseById(id);
+            if (c == null) return false;
+            // updated in place: ID, roster and list position stay the same, so no index changes
+            synchronized (stripeFor(c.getCourseId())) {
+                if (newName != null && !newName.isBlank()) c.setCourseName(newName);
+                if (newCapacity != null) c.setCapacity(newCapacity);
+                if (newInstructorId != null) c.setInstructorId(newInstructorId);
+                coursesVersion.incrementAndGet();
+                logCourseUpdate(c);
+            }
+            return true;
+        } finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    /**
+     * Moves every course taught by {@code fromStaffId} to {@code toStaffId} in one pass.
+     * Returns the number of courses changed.
+     */
+    public int reassignInstructor(String fromStaffId, String toStaffId) {
+        if (fromStaffId == null || fromStaffId.isBlank()) return 0;
+        int changed = 0;
+        structure.readLock().lock();
+        try {
+            for (Course c : courses) {
+                synchronized (stripeFor(c.getCourseId())) {
+                    if (c.getInstructorId().equalsIgnoreCase(fromStaffId.trim())) {
+                        c.setInstructorId(toStaffId);
+                        coursesVersion.incrementAndGet();
+                        logCourseUpdate(c);
+                        changed++;
+                    }
+                }
             }
+        } finally {
+            structure.readLock().unlock();
         }
-        return true;
+        return changed;
     }
 
     public boolean deleteCourse(String id) {
-        Course c = findCourseById(id);
-        if (c == null) return false;
-        return courses.remove(c);
+        structure.writeLock().lock();
+        try {
+            Course c = findCourseById(id);
+            if (c == null) return false;
+            courseIndex.set(c.ordinal(), null);
+            unindexRoster(c);
+            courses.remove(c);
+            rosterNames.remove(c);
+            coursesVersion.incrementAndGet();
+            changed(DataSet.COURSES, "C-," + c.getCourseId());
+            return true;
+        } finally {
+            structure.writeLock().unlock();
+        }
     }
 
     public boolean enrollStudentInCourse(String studentId, String courseId) {
-        Student s = findStudentById(studentId);
-        Course c = findCourseById(courseId);
-        if (s == null || c == null) return false;
-        return c.enroll(studentId);
+        structure.readLock().lock();
+        try {
+            Student s = findStudentById(studentId);
+            Course c = findCourseById(courseId);
+            if (s == null || c == null || c.isFull()) return false;
+            // the seat is reserved lock-free; the student's stripe keeps roster and reverse index in step
+            int seq;
+            synchronized (stripeFor(Ids.key(studentId))) {
+                seq = c.addToRoster(studentId);
+                if (seq < 0) return false;
+                indexEnrollment(s.ordinal(), c);
+            }
+            coursesVersion.incrementAndGet();
+            // records of one course may reach the log out of order; replay sorts them by seq
+            changed(DataSet.COURSES, "E+," + studentId.trim() + "," + c.getCourseId() + "," + seq);
+            return true;
+        } finally {
+            structure.readLock().unlock();
+        }
     }
 
     public boolean removeStudentFromCourse(String studentId, String courseId) {
+        structure.readLock().lock();
+        try {
+            Course c = findCourseById(courseId);
+            if (c == null) return false;
+            int seq;
+            synchronized (stripeFor(Ids.key(studentId))) {
+                seq = c.removeFromRoster(studentId);
+                if (seq < 0) return false;
+                unindexEnrollment(studentIds.find(studentId), c);
+            }
+            coursesVersion.incrementAndGet();
+            changed(DataSet.COURSES, "E-," + studentId.trim() + "," + c.getCourseId() + "," + seq);
+            return true;
+        } finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    /**
+     * Applies a logged E+/E- record during change log replay. An enrollment in the log
+     * had a seat when it was made, so capacity is not checked again (like a saved roster).
+     */
+    void replayEnrollment(String studentId, String courseId, boolean enrolled, int seq) {
+        structure.writeLock().lock();
+        try {
+            Course c = findCourseById(courseId);
+            if (c == null) return;
+            if (seq >= 0) c.advanceSequence(seq); // later changes sort after the replayed ones
+            if (enrolled) {
+                Student s = findStudentById(studentId);
+                if (s == null || c.restoreEnrollments(List.of(studentId)) == 0) return;
+                indexEnrollment(s.ordinal(), c);
+            } else {
+                if (!c.removeEnrollment(studentId)) return;
+                unindexEnrollment(studentIds.find(studentId), c);
+            }
+            coursesVersion.incrementAndGet();
+            changed(DataSet.COURSES, null); // already in the log being replayed
+        } finally {
+            structure.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Names of the enrolled students, comma-separated in enrollment order (the ID if the
+     * student is unknown). Cached until the roster changes or a student is added, renamed or deleted.
+     */
+    public String getEnrolledNames(Course c) {
+        return rosterNames.get(c, studentsVersion.get(), this);
+    }
+
+    /** Courses the student is enrolled in (in enrollment order), without scanning every course. */
+    public List<Course> getCoursesForStudent(String studentId) {
+        Course[] enrolledIn = studentCourses.get(studentIds.find(studentId));
+        return enrolledIn == null ? new ArrayList<>() : new ArrayList<>(Arrays.asList(enrolledIn));
+    }
+
+    private void logCourseUpdate(Course c) {
+        changed(DataSet.COURSES, "CU," + c.getCourseId() + "," + FileUtil.sanitize(c.getCourseName()) + ","
+                + c.getCapacity() + "," + c.getInstructorId());
+    }
+
+    private void indexRoster(Course c) {
+        for (int student : c.rosterCodes()) indexEnrollment(student, c);
+    }
+
+    // Copy-on-write: students are in few courses, and readers can use an array without locking
+    private void indexEnrollment(int student, Course c) {
+        Course[] old = studentCourses.get(student);
+        if (old == null) {
+            studentCourses.set(student, new Course[]{c});
+        } else if (indexOf(old, c) < 0) {
+            Course[] next = Arrays.copyOf(old, old.length + 1);
+            next[old.length] = c;
+            studentCourses.set(student, next);
+        }
+    }
+
+    private void unindexRoster(Course c) {
+        for (int student : c.rosterCodes()) unindexEnrollment(student, c);
+    }
+
+    private void unindexEnrollment(int student, Course c) {
+        Course[] old = studentCourses.get(student);
+        int i = old == null ? -1 : indexOf(old, c);
+        if (i < 0) return;
+        Course[] next = new Course[old.length - 1];
+        System.arraycopy(old, 0, next, 0, i);
+        System.arraycopy(old, i + 1, next, i, next.length - i);
+        studentCourses.set(student, next.length == 0 ? null : next);
+    }
+
+    private static int indexOf(Course[] courses, Course c) {
+        for (int i = 0; i < courses.length; i++) if (courses[i] == c) return i;
+        return -1;
+    }
+
+    private Object stripeFor(String id) {
+        return stripes[stripeIndex(id)];
+    }
+
+    private static int stripeIndex(String id) {
+        int h = id.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+
+    /**
+     * Cross-file check run after loading: course rosters and instructors must
+     * refer to existing students and staff. Returns one warning per problem.
+     */
+    public List<String> validateRosters() {
+        List<String> problems = new ArrayList<>();
+        for (Course c : getAllCourses()) {
+            String instr = c.getInstructorId();
+            if (!instr.isEmpty() && findStaffById(instr) == null)
+                problems.add("Course " + c.getCourseId() + " has unknown instructor ID: " + instr);
+            for (String sid : c.getEnrolledStudentIds()) {
+                if (findStudentById(sid) == null)
+                    problems.add("Course " + c.getCourseId() + " lists unknown student ID: " + sid);
+            }
+        }
+        return problems;
+    }
+
+    // ---------------- Roster queries ----------------
+    // Set operations on cached roster bitmaps (see StudentBitmap). Results list students in the
+    // order their IDs were first seen; roster entries for unknown student IDs are left out.
+
+    /** Students enrolled in every one of the given courses (an unknown course ID matches nobody). */
+    public List<Student> getStudentsInAllCourses(String... courseIds) {
+        if (courseIds.length == 0) return new ArrayList<>();
+        StudentBitmap res = rosterOf(courseIds[0]);
+        for (int i = 1; i < courseIds.length && !res.isEmpty(); i++) res = res.and(rosterOf(courseIds[i]));
+        return studentsIn(res);
+    }
+
+    /** Students enrolled in at least one of the given courses. */
+    public List<Student> getStudentsInAnyCourse(String... courseIds) {
+        List<StudentBitmap> rosters = new ArrayList<>();
+        for (String id : courseIds) rosters.add(rosterOf(id));
+        return studentsIn(StudentBitmap.union(rosters));
+    }
+
+    /** Students enrolled in at least one course that {@code which} accepts, e.g. every CS course. */
+    public List<Student> getStudentsInAnyCourse(Predicate<Course> which) {
+        List<StudentBitmap> rosters = new ArrayList<>();
+        for (Course c : getAllCourses()) if (which.test(c)) rosters.add(c.rosterBitmap());
+        return studentsIn(StudentBitmap.union(rosters));
+    }
+
+    /** Students enrolled in {@code courseId} but not in {@code otherCourseId}. */
+    public List<Student> getStudentsInCourseNotIn(String courseId, String otherCourseId) {
+        return studentsIn(rosterOf(courseId).andNot(rosterOf(otherCourseId)));
+    }
+
+    /** Students who are not enrolled in any course. */
+    public List<Student> getStudentsNotEnrolled() {
+        List<Student> all = getAllStudents();
+        int[] codes = new int[all.size()];
+        for (int i = 0; i < codes.length; i++) codes[i] = all.get(i).ordinal();
+        List<StudentBitmap> rosters = new ArrayList<>();
+        for (Course c : getAllCourses()) rosters.add(c.rosterBitmap());
+        return studentsIn(StudentBitmap.of(codes).andNot(StudentBitmap.union(rosters)));
+    }
+
+    /** Number of students enrolled in both courses (counted on the rosters, no list is built). */
+    public int countStudentsInBothCourses(String courseId, String otherCourseId) {
+        return rosterOf(courseId).andCardinality(rosterOf(otherCourseId));
+    }
+
+    /**
+     * Clash analysis for one course: every other course that shares students with it,
+     * mapped to the number of shared students, most shared first.
+     */
+    public Map<Course, Integer> getSharedStudentCounts(String courseId) {
+        Course course = findCourseById(courseId);
+        Map<Course, Integer> shared = new LinkedHashMap<>();
+        if (course == null) return shared;
+        StudentBitmap roster = course.rosterBitmap();
+        if (roster.isEmpty()) return shared;
+        List<Map.Entry<Course, Integer>> counts = new ArrayList<>();
+        for (Course c : getAllCourses()) {
+            if (c == course) continue;
+            int n = roster.andCardinality(c.rosterBitmap());
+            if (n > 0) counts.add(Map.entry(c, n));
+        }
+        counts.sort(Map.Entry.<Course, Integer>comparingByValue().reversed()); // stable: ties keep course order
+        for (Map.Entry<Course, Integer> e : counts) shared.put(e.getKey(), e.getValue());
+        return shared;
+    }
+
+    private StudentBitmap rosterOf(String courseId) {
         Course c = findCourseById(courseId);
-        if (c == null) return false;
-        return c.removeEnrollment(studentId);
+        return c == null ? StudentBitmap.EMPTY : c.rosterBitmap();
+    }
+
+    private List<Student> studentsIn(StudentBitmap codes) {
+        List<Student> res = new ArrayList<>(codes.cardinality());
+        for (int code : codes.toArray()) {
+            Student s = studentIndex.get(code);
+            if (s != null) res.add(s);
+        }
+        return res;
+    }
+
+    // ---------------- Analytics ----------------
+    // Full scans over the score/age/major columns (see StudentColumns), not over Student objects
+
+    /** Average performance score of all students, 0 if there are none. */
+    public double getAverageScore() {
+        structure.readLock().lock();
+        try {
+            return columns.count() == 0 ? 0.0 : columns.sumScores() / columns.count();
+        } finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    /**
+     * Average performance score per major, majors in alphabetical order. Majors are
+     * compared exactly as entered, like the major codes in the columns ("CS" and "cs" are two).
+     */
+    public Map<String, Double> getAverageScoreByMajor() {
+        double[] sums;
+        int[] counts;
+        structure.readLock().lock();
+        try {
+            int majorCount = majors.size(); // every code in the columns is below this
+            sums = new double[majorCount];
+            counts = new int[majorCount];
+            columns.sumScoresByMajor(sums, counts);
+        } finally {
+            structure.readLock().unlock();
+        }
+        Map<String, Double> averages = new TreeMap<>();
+        for (int m = 0; m < counts.length; m++) {
+            if (counts[m] > 0) averages.put(majors.decode(m), sums[m] / counts[m]);
+        }
+        return averages;
+    }
+
+    /**
+     * Number of students per age group of {@code bucketWidth} years, keyed by the first
+     * age of the group (e.g. 20 -> students aged 20-24 for a width of 5), youngest first.
+     */
+    public Map<Integer, Integer> getAgeHistogram(int bucketWidth) {
+        if (bucketWidth < 1) throw new IllegalArgumentException("Bucket width must be at least 1");
+        int[] counts;
+        structure.readLock().lock();
+        try {
+            counts = columns.ageHistogram(bucketWidth);
+        } finally {
+            structure.readLock().unlock();
+        }
+        Map<Integer, Integer> histogram = new LinkedHashMap<>();
+        for (int b = 0; b < counts.length; b++) if (counts[b] > 0) histogram.put(b * bucketWidth, counts[b]);
+        return histogram;
     }
 
     // ---------------- Evaluation Queue ----------------
-    public void scheduleEvaluation(String command) { evaluationQueue.offer(command); }
+    /**
+     * Validates and queues a command in text form ("R,S001,5.0" or "P,S001,2.5").
+     * Returns a message saying it was scheduled or why it was rejected.
+     */
+    public String scheduleEvaluation(String command) {
+        EvaluationCommand cmd;
+        try {
+            cmd = EvaluationCommand.parse(command, this);
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+        scheduleEvaluation(cmd);
+        return "Scheduled: " + cmd;
+    }
+
+    public void scheduleEvaluation(EvaluationCommand cmd) {
+        synchronized (evaluationQueue) {
+            evaluationQueue.add(cmd.getAction(), cmd.getStudent(), cmd.getAmount());
+            if (evaluationLog != null) evaluationLog.append(cmd.toString());
+        }
+    }
+
+    /**
+     * Makes the queue persistent: pending commands from the log are queued again
+     * (after anything already queued) and every later schedule/process is mirrored to it.
+     * Logged commands that are no longer valid (e.g. the student was deleted) are dropped.
+     */
+    public void setEvaluationLog(EvaluationLog log) {
+        synchronized (evaluationQueue) {
+            this.evaluationLog = null;
+            if (log != null) {
+                int queuedBefore = evaluationQueue.size();
+                int dropped = 0;
+                for (String text : log.pending()) {
+                    try {
+                        scheduleEvaluation(EvaluationCommand.parse(text, this));
+                    } catch (IllegalArgumentException e) {
+                        System.out.println("Dropping scheduled evaluation: " + e.getMessage());
+                        dropped++;
+                    }
+                }
+                // keep file and queue record-for-record aligned, since consume() works by position
+                if (dropped > 0 || queuedBefore > 0) log.rewrite(evaluationQueue.describe());
+            }
+            this.evaluationLog = log;
+        }
+    }
 
     public String processNextEvaluation() {
-        String cmd = evaluationQueue.poll();
-        if (cmd == null) return "No scheduled evaluations.";
-        String[] p = cmd.split(",");
-        if (p.length < 3) return "Malformed evaluation command: " + cmd;
-        String action = p[0].trim();
-        String sid = p[1].trim();
-        double amt;
-        try { amt = Double.parseDouble(p[2].trim()); } catch (NumberFormatException e) {
-            return "Invalid amount in scheduled command: " + cmd;
-        }
-        Student s = findStudentById(sid);
-        if (s == null) return "Student not found: " + sid;
-        if (action.equalsIgnoreCase("R")) {
-            s.setPerformanceScore(s.getPerformanceScore() + amt);
-            return "Rewarded " + sid + " by " + amt + ". New score: " + s.getPerformanceScore();
-        } else {
-            s.setPerformanceScore(Math.max(0, s.getPerformanceScore() - amt));
-            return "Penalized " + sid + " by " + amt + ". New score: " + s.getPerformanceScore();
+        structure.readLock().lock();
+        try {
+            synchronized (evaluationQueue) {
+                String result = applyNextEvaluation();
+                if (evaluationLog != null) evaluationLog.sync();
+                return result;
+            }
+        } finally {
+            structure.readLock().unlock();
         }
     }
 
+    /** Applies every queued command; large queues are handed to processAllEvaluationsParallel. */
     public List<String> processAllEvaluations() {
-        List<String> results = new ArrayList<>();
-        while (!evaluationQueue.isEmpty()) results.add(processNextEvaluation());
-        return results;
+        return processEvaluations(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Applies up to {@code max} queued commands, oldest first, with one sync of the queue
+     * file. Lets a caller work through a long queue in steps (e.g. to show progress).
+     */
+    public List<String> processEvaluations(int max) {
+        structure.readLock().lock();
+        try {
+            synchronized (evaluationQueue) {
+                if (Math.min(max, evaluationQueue.size()) >= PARALLEL_EVALUATION_THRESHOLD) return drainParallel(max);
+                List<String> results = new ArrayList<>();
+                while (results.size() < max && !evaluationQueue.isEmpty()) results.add(applyNextEvaluation());
+                if (evaluationLog != null) evaluationLog.sync(); // one fsync for the whole batch
+                return results;
+            }
+        } finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    /**
+     * Applies every queued command using all cores. Commands are partitioned by student,
+     * so each student's commands still run in queue order on one thread (order matters
+     * because scores are clamped at 0). Results come back in original queue order.
+     */
+    public List<String> processAllEvaluationsParallel() {
+        structure.readLock().lock();
+        try {
+            synchronized (evaluationQueue) {
+                return drainParallel(Integer.MAX_VALUE);
+            }
+        } finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    private List<String> drainParallel(int max) {
+        int n = Math.min(max, evaluationQueue.size());
+        byte[] actions = new byte[n];
+        Student[] targets = new Student[n];
+        double[] amounts = new double[n];
+        evaluationQueue.drainTo(actions, targets, amounts);
+
+        double[] scores = new double[n]; // results are formatted only when read, see EvaluationResults
+        String[] ids = new String[n];
+        for (int i = 0; i < n; i++) {
+            ids[i] = targets[i].getId();
+            if (targets[i].isRemoved()) targets[i] = findStudentById(ids[i]);
+        }
+
+        // Group command indexes by student (counting sort keeps each group in queue order)
+        int parts = Math.max(1, Runtime.getRuntime().availableProcessors() * 4);
+        int[] partOf = new int[n];
+        int[] start = new int[parts + 1];
+        for (int i = 0; i < n; i++) {
+            partOf[i] = targets[i] == null ? 0 : Math.floorMod(System.identityHashCode(targets[i]), parts);
+            start[partOf[i] + 1]++;
+        }
+        for (int p = 0; p < parts; p++) start[p + 1] += start[p];
+        int[] order = new int[n];
+        int[] fill = Arrays.copyOf(start, parts);
+        for (int i = 0; i < n; i++) order[fill[partOf[i]]++] = i;
+
+        byte reward = (byte) EvaluationCommand.Action.REWARD.ordinal();
+        IntStream.range(0, parts).parallel().forEach(p -> {
+            for (int k = start[p]; k < start[p + 1]; k++) {
+                int i = order[k];
+                Student s = targets[i];
+                if (s == null) { scores[i] = Double.NaN; continue; }
+                synchronized (stripeFor(ids[i])) {
+                    s.setPerformanceScore(s.getPerformanceScore() + (actions[i] == reward ? amounts[i] : -amounts[i]));
+                    scores[i] = s.getPerformanceScore();
+                }
+            }
+        });
+
+        // Bookkeeping stays on the caller's thread: one change record per student
+        LinkedHashSet<Student> touched = new LinkedHashSet<>();
+        for (Student s : targets) if (s != null) touched.add(s);
+        for (Student s : touched) {
+            synchronized (stripeFor(s.getId())) {
+                scoreIndex.update(s);
+                updateScoreColumn(s);
+                recordScore(s);
+            }
+        }
+        if (evaluationLog != null) {
+            evaluationLog.consume(n);
+            evaluationLog.sync();
+        }
+        return new EvaluationResults(ids, actions, amounts, scores);
+    }
+
+    /**
+     * Drains the whole queue folding each student's commands into one net adjustment,
+     * and returns a one-line summary instead of a message per command.
+     *
+     * Applying x -> max(0, x + d) repeatedly is the same as x -> max(floor, x + total),
+     * where total is the sum of the deltas and floor the score reached if the student
+     * had started at 0, so the clamp behaves exactly as with one-by-one processing.
+     */
+    public String processAllEvaluationsCoalesced() {
+        structure.readLock().lock();
+        try {
+            synchronized (evaluationQueue) {
+                return drainCoalesced();
+            }
+        } finally {
+            structure.readLock().unlock();
+        }
+    }
+
+    private String drainCoalesced() {
+        if (evaluationQueue.isEmpty()) return "No scheduled evaluations.";
+        int commands = evaluationQueue.size();
+        int skipped = 0;
+        LinkedHashMap<Student, double[]> net = new LinkedHashMap<>(); // student -> {floor, total}
+        while (!evaluationQueue.isEmpty()) {
+            Student s = currentTarget();
+            double delta = evaluationQueue.peekAction() == EvaluationCommand.Action.REWARD
+                    ? evaluationQueue.peekAmount() : -evaluationQueue.peekAmount();
+            evaluationQueue.remove();
+            if (s == null) { skipped++; continue; }
+            double[] f = net.computeIfAbsent(s, k -> new double[2]);
+            f[0] = Math.max(0.0, f[0] + delta);
+            f[1] += delta;
+        }
+        for (Map.Entry<Student, double[]> e : net.entrySet()) {
+            Student s = e.getKey();
+            double[] f = e.getValue();
+            synchronized (stripeFor(s.getId())) {
+                s.setPerformanceScore(Math.max(f[0], s.getPerformanceScore() + f[1]));
+                scoreIndex.update(s);
+                updateScoreColumn(s);
+                recordScore(s);
+            }
+        }
+        if (evaluationLog != null) {
+            evaluationLog.consume(commands);
+            evaluationLog.sync();
+        }
+        return "Applied " + (commands - skipped) + " evaluations to " + net.size() + " students"
+                + (skipped > 0 ? " (" + skipped + " skipped: student not found)." : ".");
+    }
+
+    public int getPendingEvaluationCount() {
+        synchronized (evaluationQueue) { return evaluationQueue.size(); }
+    }
+
+    private String applyNextEvaluation() {
+        if (evaluationQueue.isEmpty()) return "No scheduled evaluations.";
+        EvaluationCommand.Action action = evaluationQueue.peekAction();
+        Student s = currentTarget();
+        String sid = evaluationQueue.peekStudent().getId();
+        double amt = evaluationQueue.peekAmount();
+        evaluationQueue.remove();
+        if (evaluationLog != null) evaluationLog.consume();
+
+        if (s == null) return "Student not found: " + sid;
+        boolean isReward = action == EvaluationCommand.Action.REWARD;
+        adjustScore(s, isReward ? amt : -amt);
+        return EvaluationResults.describe(isReward, sid, amt, s.getPerformanceScore());
+    }
+
+    // Student the head command applies to; only looked up again if it was deleted meanwhile
+    private Student currentTarget() {
+        Student s = evaluationQueue.peekStudent();
+        return s.isRemoved() ? findStudentById(s.getId()) : s;
+    }
+
+    // ---------------- Loading ----------------
+    // Rows read from the files, added on a loader thread while the GUI may already edit other
+    // data: they are not logged or marked dirty, and the write lock is released between batches
+    static final int LOAD_BATCH = 10_000;
+
+    void loadStudents(List<Student> rows) {
+        for (int from = 0; from < rows.size(); from += LOAD_BATCH) {
+            structure.writeLock().lock();
+            try {
+                for (Student s : rows.subList(from, Math.min(rows.size(), from + LOAD_BATCH))) addStudent(s, false);
+            } finally {
+                structure.writeLock().unlock();
+            }
+        }
+    }
+
+    void loadStaff(List<Staff> rows) {
+        for (int from = 0; from < rows.size(); from += LOAD_BATCH) {
+            structure.writeLock().lock();
+            try {
+                for (Staff st : rows.subList(from, Math.min(rows.size(), from + LOAD_BATCH))) addStaff(st, false);
+            } finally {
+                structure.writeLock().unlock();
+            }
+        }
+    }
+
+    void loadCourses(List<Course> rows) {
+        for (int from = 0; from < rows.size(); from += LOAD_BATCH) {
+            structure.writeLock().lock();
+            try {
+                for (Course c : rows.subList(from, Math.min(rows.size(), from + LOAD_BATCH))) addCourse(c, false);
+            } finally {
+                structure.writeLock().unlock();
+            }
+        }
+    }
+
+    // ---------------- Change tracking ----------------
+    // record may be null when the change is implied by another record (e.g. S- also edits rosters)
+    private void changed(DataSet set, String record) {
+        synchronized (dirty) { dirty.add(set); }
+        if (journal != null && record != null) journal.append(record);
+    }
+
+    // Caller holds the student's stripe; a Student object that is no longer managed is ignored
+    private void updateScoreColumn(Student s) {
+        if (studentIndex.get(s.ordinal()) == s) columns.setScore(s.ordinal(), s.getPerformanceScore());
     }
 
+    // Same as changed(STUDENTS, "SC,id,score"), but the journal formats it into a reused buffer
+    private void recordScore(Student s) {
+        synchronized (dirty) { dirty.add(DataSet.STUDENTS); }
+        if (journal != null) journal.appendScore(s.getId(), s.getPerformanceScore());
+    }
+
+    /** True if the data set changed since it was last saved (see DataStore). */
+    public boolean isDirty(DataSet set) {
+        synchronized (dirty) { return dirty.contains(set); }
+    }
+
+    public void markClean(DataSet set) {
+        synchronized (dirty) { dirty.remove(set); }
+    }
+
+    /** Attaches (or with null, detaches) the change log that every mutation is appended to. */
+    public void setJournal(ChangeJournal journal) { this.journal = journal; }
+
+    /**
+     * Lock guarding the collections. Holding its write lock stops every change,
+     * which DataStore uses so a save and the log truncation after it see the same state.
+     */
+    ReentrantReadWriteLock structureLock() { return structure; }
+
     // ---------------- Getters for UI & persistence ----------------
-    public List<Student> getAllStudents() { return students; }
-    public List<Staff> getAllStaff() { return staff; }
-    public List<Course> getAllCourses() { return courses; }
-    public Queue<String> getEvaluationQueue() { return evaluationQueue; }
+    // Snapshot copies: safe to iterate or sort while other threads keep changing the data
+    public List<Student> getAllStudents() { return snapshot(students); }
+    public List<Staff> getAllStaff() { return snapshot(staff); }
+    public List<Course> getAllCourses() { return snapshot(courses); }
+    /** Pending commands in text form, next to be processed first (a copy). */
+    public List<String> getEvaluationQueue() {
+        synchronized (evaluationQueue) { return evaluationQueue.describe(); }
+    }
+
+    private <T> List<T> snapshot(List<T> list) {
+        structure.readLock().lock();
+        try {
+            return new ArrayList<>(list);
+        } finally {
+            structure.readLock().unlock();
+        }
+    }
 }
@@ -0,0 +1,10 @@
+package cms;
+
+/**
+ * Orders available for course lists (see CourseManager.getCoursesSorted).
+ */
+public enum CourseSort {
+    ID,
+    NAME,
+    ENROLLED // most enrolled students first
+}
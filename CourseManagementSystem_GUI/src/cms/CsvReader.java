@@ -0,0 +1,214 @@
+package cms;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+/**
+ * Single-pass CSV tokenizer used by FileUtil loaders.
+ *
+ * Reads through one reusable char buffer and records field boundaries instead of
+ * building String[] arrays per line. Fields are trimmed; blank lines are skipped.
+ * Numbers are parsed straight from the buffer, so only the text fields allocate.
+ */
+final class CsvReader implements Closeable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    // exact powers of ten for the fast double path
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final Reader in;
+    private final char[] buf = new char[BUFFER_SIZE];
+    private int pos;
+    private int limit;
+
+    private char[] line = new char[256];
+    private int lineLength;
+    private int lineNumber;
+
+    private int[] starts = new int[8];
+    private int[] ends = new int[8];
+    private int fields;
+
+    CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    /** Advances to the next non-blank line. Returns false at end of input. */
+    boolean next() throws IOException {
+        while (readLine()) {
+            split();
+            if (fields > 1 || ends[0] > starts[0]) return true;
+        }
+        return false;
+    }
+
+    /** 1-based number of the current line in the input. */
+    int lineNumber() { return lineNumber; }
+
+    int fieldCount() { return fields; }
+
+    boolean isEmpty(int i) { return ends[i] == starts[i]; }
+
+    String field(int i) {
+        return new String(line, starts[i], ends[i] - starts[i]);
+    }
+
+    /** Whole current line (only needed for messages). */
+    String line() {
+        return new String(line, 0, lineLength).trim();
+    }
+
+    /** Integer value of field i, or {@code dflt} if it is not a valid int. */
+    int intField(int i, int dflt) {
+        int p = starts[i];
+        int end = ends[i];
+        if (p == end) return dflt;
+        boolean neg = false;
+        char c = line[p];
+        if (c == '-' || c == '+') {
+            neg = (c == '-');
+            if (++p == end) return dflt;
+        }
+        long v = 0;
+        for (; p < end; p++) {
+            int d = line[p] - '0';
+            if (d < 0 || d > 9) return dflt;
+            v = v * 10 + d;
+            if (v > Integer.MAX_VALUE + 1L) return dflt;
+        }
+        if (neg) v = -v;
+        if (v > Integer.MAX_VALUE || v < Integer.MIN_VALUE) return dflt;
+        return (int) v;
+    }
+
+    /**
+     * Double value of field i, or {@code dflt} if it is not a valid number.
+     * Plain decimals of up to 15 digits are parsed in place (exactly rounded);
+     * anything else (exponents, very long values) falls back to Double.parseDouble.
+     */
+    double doubleField(int i, double dflt) {
+        int p = starts[i];
+        int end = ends[i];
+        if (p == end) return dflt;
+        boolean neg = false;
+        char c = line[p];
+        if (c == '-' || c == '+') {
+            neg = (c == '-');
+            p++;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int fractionDigits = 0;
+        boolean dot = false;
+        boolean sawDigit = false;
+        for (; p < end; p++) {
+            c = line[p];
+            if (c >= '0' && c <= '9') {
+                sawDigit = true;
+                if (mantissa != 0 || c != '0') digits++;
+                if (digits > 15) return slowDouble(i, dflt);
+                mantissa = mantissa * 10 + (c - '0');
+                if (dot) fractionDigits++;
+            } else if (c == '.' && !dot) {
+                dot = true;
+            } else {
+                return slowDouble(i, dflt);
+            }
+        }
+        if (!sawDigit) return dflt;
+        if (fractionDigits >= POW10.length) return slowDouble(i, dflt);
+        double v = mantissa / POW10[fractionDigits];
+        return neg ? -v : v;
+    }
+
+    /** Splits field i on {@code sep} and passes each trimmed, non-blank part to {@code sink}. */
+    void splitField(int i, char sep, Consumer<String> sink) {
+        int p = starts[i];
+        int end = ends[i];
+        while (p < end) {
+            int q = p;
+            while (q < end && line[q] != sep) q++;
+            int s = p;
+            int e = q;
+            while (s < e && line[s] <= ' ') s++;
+            while (e > s && line[e - 1] <= ' ') e--;
+            if (e > s) sink.accept(new String(line, s, e - s));
+            p = q + 1;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    // ---------------- helpers ----------------
+    private double slowDouble(int i, double dflt) {
+        try { return Double.parseDouble(field(i)); } catch (NumberFormatException e) { return dflt; }
+    }
+
+    private boolean readLine() throws IOException {
+        lineLength = 0;
+        boolean any = false;
+        while (true) {
+            if (pos == limit) {
+                limit = in.read(buf, 0, buf.length);
+                pos = 0;
+                if (limit <= 0) {
+                    limit = 0;
+                    if (any) lineNumber++;
+                    return any;
+                }
+            }
+            any = true;
+            int start = pos;
+            while (pos < limit && buf[pos] != '\n') pos++;
+            append(start, pos);
+            if (pos < limit) {
+                pos++; // skip '\n'
+                lineNumber++;
+                return true;
+            }
+        }
+    }
+
+    private void append(int from, int to) {
+        int n = to - from;
+        if (n == 0) return;
+        if (lineLength + n > line.length) {
+            char[] bigger = new char[Math.max(line.length * 2, lineLength + n)];
+            System.arraycopy(line, 0, bigger, 0, lineLength);
+            line = bigger;
+        }
+        System.arraycopy(buf, from, line, lineLength, n);
+        lineLength += n;
+    }
+
+    private void split() {
+        fields = 0;
+        int p = 0;
+        while (true) {
+            int q = p;
+            while (q < lineLength && line[q] != ',') q++;
+            int s = p;
+            int e = q;
+            while (s < e && line[s] <= ' ') s++;
+            while (e > s && line[e - 1] <= ' ') e--;
+            if (fields == starts.length) {
+                starts = Arrays.copyOf(starts, fields * 2);
+                ends = Arrays.copyOf(ends, fields * 2);
+            }
+            starts[fields] = s;
+            ends[fields] = e;
+            fields++;
+            if (q >= lineLength) return;
+            p = q + 1;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package cms;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Loads students, staff and courses in parallel at startup.
+ *
+ * Each file is parsed on its own worker thread, which then adds the rows to the manager
+ * in batches (see CourseManager.loadStudents), so other threads can use the manager in
+ * between. Only the readiness callbacks run on the caller's executor (the Swing EDT for
+ * the GUI). Once all three are in, the rosters are cross-checked against students and staff.
+ */
+public class DataBootstrap {
+    private final CourseManager manager;
+    private final String studentsFile;
+    private final String staffFile;
+    private final String coursesFile;
+
+    public DataBootstrap(CourseManager manager, String studentsFile, String staffFile, String coursesFile) {
+        this.manager = manager;
+        this.studentsFile = studentsFile;
+        this.staffFile = staffFile;
+        this.coursesFile = coursesFile;
+    }
+
+    /**
+     * Starts loading and returns immediately.
+     *
+     * @param notifyOn executor that runs the callbacks
+     * @param onReady called (on notifyOn) as soon as a data set is in the manager
+     * @return completes (on a loader thread) with the cross-file validation warnings
+     */
+    public CompletableFuture<List<String>> start(Executor notifyOn, Consumer<DataSet> onReady) {
+        ExecutorService io = Executors.newFixedThreadPool(3, r -> {
+            Thread t = new Thread(r, "cms-loader");
+            t.setDaemon(true);
+            return t;
+        });
+
+        CompletableFuture<Void> students = load(() -> FileUtil.readStudents(studentsFile), io, notifyOn,
+                manager::loadStudents, DataSet.STUDENTS, onReady);
+        CompletableFuture<Void> staff = load(() -> FileUtil.readStaff(staffFile), io, notifyOn,
+                manager::loadStaff, DataSet.STAFF, onReady);
+        CompletableFuture<Void> courses = load(() -> FileUtil.readCourses(coursesFile), io, notifyOn,
+                manager::loadCourses, DataSet.COURSES, onReady);
+
+        return CompletableFuture.allOf(students, staff, courses)
+                .thenApplyAsync(v -> manager.validateRosters(), io)
+                .whenComplete((v, e) -> io.shutdown());
+    }
+
+    /** Blocking variant for the CLI: loads everything and returns the validation warnings. */
+    public List<String> loadAll() {
+        return start(Runnable::run, set -> { }).join();
+    }
+
+    private static <T> CompletableFuture<Void> load(Supplier<List<T>> read, Executor io, Executor notifyOn,
+                                                    Consumer<List<T>> apply, DataSet set, Consumer<DataSet> onReady) {
+        return CompletableFuture.supplyAsync(read, io).thenAccept(rows -> {
+            apply.accept(rows);
+            notifyOn.execute(() -> onReady.accept(set));
+        });
+    }
+}
@@ -0,0 +1,10 @@
+package cms;
+
+/**
+ * The three data sets kept by CourseManager, each stored in its own CSV file.
+ */
+public enum DataSet {
+    STUDENTS,
+    STAFF,
+    COURSES
+}
@@ -0,0 +1,144 @@
+package cms;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+/**
+ * Ties a CourseManager to its files: the three CSVs, the change log and the binary snapshot.
+ *
+ * After every action the UI calls {@link #commit()}. The change itself has already
+ * been appended to the log, so nothing else is written until the log grows past
+ * {@link #COMPACT_THRESHOLD} records. Then only the data sets that changed are
+ * rewritten and the log is emptied.
+ *
+ * Every successful save also refreshes the snapshot; startup reads the snapshot
+ * when it is still in step with the CSVs and falls back to the CSVs otherwise.
+ * Scheduled evaluations are kept in their own file (see EvaluationLog).
+ */
+public class DataStore {
+    public static final int COMPACT_THRESHOLD = 1000;
+
+    private final CourseManager manager;
+    private final String studentsFile;
+    private final String staffFile;
+    private final String coursesFile;
+    private final ChangeJournal journal;
+    private final Snapshot snapshot;
+    private final String queueFile;
+    private EvaluationLog evaluationLog;
+
+    public DataStore(CourseManager manager, String studentsFile, String staffFile, String coursesFile,
+                     String journalFile, String snapshotFile, String queueFile) {
+        this.manager = manager;
+        this.studentsFile = studentsFile;
+        this.staffFile = staffFile;
+        this.coursesFile = coursesFile;
+        this.journal = new ChangeJournal(journalFile);
+        this.snapshot = new Snapshot(snapshotFile, studentsFile, staffFile, coursesFile);
+        this.queueFile = queueFile;
+    }
+
+    /**
+     * Loads the snapshot if it is fresh, otherwise the CSVs in parallel (see DataBootstrap),
+     * then replays the change log. Blocking.
+     */
+    public List<String> load() {
+        Snapshot.Data data = snapshot.readIfFresh();
+        List<String> warnings;
+        if (data != null) {
+            data.applyTo(manager);
+            warnings = manager.validateRosters();
+        } else {
+            warnings = new DataBootstrap(manager, studentsFile, staffFile, coursesFile).loadAll();
+        }
+        afterLoad();
+        return warnings;
+    }
+
+    /**
+     * Non-blocking variant for the GUI: data is added on background threads and each data
+     * set can be edited as soon as {@code onReady} (run on {@code notifyOn}) reports it.
+     * The change log is attached before loading and holds those edits until the records
+     * of earlier runs have been replayed (see ChangeJournal.hold).
+     */
+    public CompletableFuture<List<String>> loadAsync(Executor notifyOn, Consumer<DataSet> onReady) {
+        journal.hold();
+        manager.setJournal(journal);
+        return CompletableFuture.supplyAsync(snapshot::readIfFresh)
+                .thenCompose(data -> {
+                    if (data == null) {
+                        return new DataBootstrap(manager, studentsFile, staffFile, coursesFile).start(notifyOn, onReady);
+                    }
+                    data.applyTo(manager);
+                    for (DataSet set : DataSet.values()) notifyOn.execute(() -> onReady.accept(set));
+                    return CompletableFuture.completedFuture(manager.validateRosters());
+                })
+                .thenApply(warnings -> {
+                    afterLoad();
+                    return warnings;
+                });
+    }
+
+    /** Call after each change; compacts the log into the CSVs once it is large enough. */
+    public void commit() {
+        if (journal.size() >= COMPACT_THRESHOLD) saveAll();
+    }
+
+    /**
+     * Writes every changed data set to its CSV and empties the change log.
+     * If a file cannot be written the log is kept, so the changes are not lost.
+     */
+    public boolean saveAll() {
+        // no changes while saving, or one could land in the log after its CSV was written and be truncated away
+        manager.structureLock().writeLock().lock();
+        try {
+            boolean changed = manager.isDirty(DataSet.STUDENTS) || manager.isDirty(DataSet.STAFF)
+                    || manager.isDirty(DataSet.COURSES);
+            boolean ok = save(DataSet.STUDENTS) & save(DataSet.STAFF) & save(DataSet.COURSES);
+            if (evaluationLog != null) evaluationLog.sync();
+            if (!ok) return false;
+            if (changed || !snapshot.isFresh()) snapshot.write(manager);
+            journal.truncate();
+            return true;
+        } finally {
+            manager.structureLock().writeLock().unlock();
+        }
+    }
+
+    private boolean save(DataSet set) {
+        if (!manager.isDirty(set)) return true;
+        boolean ok;
+        switch (set) {
+            case STUDENTS: ok = FileUtil.saveStudents(studentsFile, manager.getAllStudents()); break;
+            case STAFF:    ok = FileUtil.saveStaff(staffFile, manager.getAllStaff()); break;
+            default:       ok = FileUtil.saveCourses(coursesFile, manager.getAllCourses()); break;
+        }
+        if (ok) manager.markClean(set);
+        return ok;
+    }
+
+    // Replays the change log, then the edits held while loading, and attaches the log.
+    // Loaded rows are never marked dirty, so only replayed and held changes are unsaved.
+    private void afterLoad() {
+        manager.structureLock().writeLock().lock(); // no edits until the log is attached again
+        try {
+            manager.setJournal(null); // the replayed records are in the log already
+            journal.replay(manager);
+            journal.release(manager);
+            manager.setJournal(journal);
+        } finally {
+            manager.structureLock().writeLock().unlock();
+        }
+        try {
+            evaluationLog = new EvaluationLog(queueFile);
+            manager.setEvaluationLog(evaluationLog);
+            int pending = manager.getEvaluationQueue().size();
+            if (pending > 0) System.out.println("Restored " + pending + " scheduled evaluations from " + queueFile);
+        } catch (IOException e) {
+            System.out.println("Error opening " + queueFile + ": " + e.getMessage() + ". Scheduled evaluations will not be kept.");
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package cms;
+
+/**
+ * A scheduled reward or penalty, validated when it is scheduled.
+ *
+ * The text form "R,S001,5.0" / "P,S001,2.5" is still what users type; it is parsed
+ * once here, with the student already resolved, so processing never re-splits strings.
+ */
+public final class EvaluationCommand {
+
+    public enum Action {
+        REWARD("R"),
+        PENALTY("P");
+
+        private final String code;
+
+        Action(String code) { this.code = code; }
+
+        public String getCode() { return code; }
+    }
+
+    private final Action action;
+    private final Student student;
+    private final double amount;
+
+    /** Throws IllegalArgumentException if a part is missing or the amount is not a finite number. */
+    public EvaluationCommand(Action action, Student student, double amount) {
+        if (action == null) throw new IllegalArgumentException("Evaluation command without a type (use R or P)");
+        if (student == null) throw new IllegalArgumentException("Evaluation command without a student");
+        if (Double.isNaN(amount) || Double.isInfinite(amount))
+            throw new IllegalArgumentException("Invalid amount in scheduled command: " + amount);
+        this.action = action;
+        this.student = student;
+        this.amount = amount;
+    }
+
+    public Action getAction() { return action; }
+    public Student getStudent() { return student; }
+    public double getAmount() { return amount; }
+
+    /**
+     * Parses "R,studentId,amount" or "P,studentId,amount".
+     * Throws IllegalArgumentException with a user-facing message if the command is invalid.
+     */
+    public static EvaluationCommand parse(String text, CourseManager manager) {
+        if (text == null) throw new IllegalArgumentException("Malformed evaluation command: " + text);
+        String[] p = text.split(",");
+        if (p.length < 3) throw new IllegalArgumentException("Malformed evaluation command: " + text);
+
+        Action action;
+        String code = p[0].trim();
+        if (code.equalsIgnoreCase("R")) action = Action.REWARD;
+        else if (code.equalsIgnoreCase("P")) action = Action.PENALTY;
+        else throw new IllegalArgumentException("Unknown evaluation type '" + code + "' (use R or P): " + text);
+
+        double amount;
+        try { amount = Double.parseDouble(p[2].trim()); } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid amount in scheduled command: " + text);
+        }
+        if (Double.isNaN(amount) || Double.isInfinite(amount))
+            throw new IllegalArgumentException("Invalid amount in scheduled command: " + text);
+
+        String sid = p[1].trim();
+        Student s = manager.findStudentById(sid);
+        if (s == null) throw new IllegalArgumentException("Student not found: " + sid);
+        return new EvaluationCommand(action, s, amount);
+    }
+
+    // Same text form as typed by the user
+    @Override
+    public String toString() {
+        return action.getCode() + "," + student.getId() + "," + amount;
+    }
+}
@@ -0,0 +1,163 @@
+package cms;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persistent backing for the evaluation queue (evaluations.queue).
+ *
+ * The file is one memory-mapped, append-only segment:
+ *   header: int magic, int version, long head (consumer offset), long tail (producer offset)
+ *   records from HEADER_SIZE on: int byteLength + UTF-8 command, e.g. "R,S001,5.0"
+ *
+ * Appending writes the record and then moves the tail, so if the process crashes the
+ * mapped pages (which the OS still writes back) never expose a half-written record.
+ * That order is not guaranteed on disk after a power loss or OS crash: the tail may
+ * point past bytes that never got written. pending() therefore checks every record's
+ * length and drops the tail from the first record that does not fit; a record whose
+ * length survived but whose text did not is not detected. Consuming only moves the head. Once the queue is empty both
+ * offsets go back to the start of the segment, so the file does not keep growing.
+ * Appends are fsynced in batches of {@link #SYNC_BATCH}; {@link #sync()} forces the rest.
+ */
+public class EvaluationLog implements Closeable {
+    private static final int MAGIC = 0x434D5351; // "CMSQ"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 32;
+    private static final int HEAD_POS = 8;
+    private static final int TAIL_POS = 16;
+    private static final int INITIAL_SIZE = 1 << 20;
+    static final int SYNC_BATCH = 1024;
+
+    private final String filename;
+    private final FileChannel channel;
+    private MappedByteBuffer buf;
+    private long head;
+    private long tail;
+    private int unsynced;
+
+    public EvaluationLog(String filename) throws IOException {
+        this.filename = filename;
+        this.channel = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = Math.max(INITIAL_SIZE, channel.size());
+        buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        if (buf.getInt(0) == MAGIC && buf.getInt(4) == VERSION) {
+            head = buf.getLong(HEAD_POS);
+            tail = buf.getLong(TAIL_POS);
+            if (head < HEADER_SIZE || tail < head || tail > size) {
+                System.out.println("Evaluation queue file " + filename + " is damaged; starting with an empty queue.");
+                reset();
+            }
+        } else {
+            buf.putInt(0, MAGIC);
+            buf.putInt(4, VERSION);
+            reset();
+        }
+    }
+
+    /** Commands still waiting in the file, oldest first (used to refill the queue at startup). */
+    public synchronized List<String> pending() {
+        List<String> commands = new ArrayList<>();
+        long pos = head;
+        while (pos < tail) {
+            long end = recordEnd(pos);
+            if (end < 0) {
+                System.out.println("Evaluation queue file " + filename + " has a damaged record; dropping "
+                        + (tail - pos) + " bytes after " + commands.size() + " commands.");
+                tail = pos;
+                if (head >= tail) reset();
+                else buf.putLong(TAIL_POS, tail);
+                unsynced++;
+                break;
+            }
+            byte[] b = new byte[(int) (end - pos - 4)];
+            buf.get((int) pos + 4, b);
+            commands.add(new String(b, StandardCharsets.UTF_8));
+            pos = end;
+        }
+        return commands;
+    }
+
+    public synchronized void append(String command) {
+        byte[] b = command.getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(tail + 4 + b.length);
+        int pos = (int) tail;
+        buf.putInt(pos, b.length);
+        buf.put(pos + 4, b);
+        tail += 4 + b.length;
+        buf.putLong(TAIL_POS, tail);
+        if (++unsynced >= SYNC_BATCH) sync();
+    }
+
+    /** Marks the oldest command as processed. */
+    public synchronized void consume() {
+        if (head >= tail) return;
+        long end = recordEnd(head);
+        head = end < 0 ? tail : end; // a damaged record ends the queue, see pending()
+        if (head >= tail) reset();
+        else buf.putLong(HEAD_POS, head);
+        unsynced++;
+    }
+
+    /** Replaces the file's pending commands with the given ones and forces it to disk. */
+    public synchronized void rewrite(List<String> commands) {
+        reset();
+        for (String command : commands) append(command);
+        unsynced++;
+        sync();
+    }
+
+    /** Marks the oldest {@code count} commands as processed. */
+    public synchronized void consume(int count) {
+        for (int i = 0; i < count && head < tail; i++) consume();
+    }
+
+    /** Forces outstanding appends and consumer moves to disk. */
+    public synchronized void sync() {
+        if (unsynced == 0) return;
+        buf.force();
+        unsynced = 0;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        sync();
+        channel.close();
+    }
+
+    // ---------------- helpers ----------------
+    // End of the record at pos, or -1 if its length does not fit between pos and the tail
+    private long recordEnd(long pos) {
+        if (tail - pos < 4) return -1;
+        int len = buf.getInt((int) pos);
+        if (len < 0 || len > tail - pos - 4) return -1;
+        return pos + 4 + len;
+    }
+
+    private void reset() {
+        head = HEADER_SIZE;
+        tail = HEADER_SIZE;
+        buf.putLong(HEAD_POS, head);
+        buf.putLong(TAIL_POS, tail);
+    }
+
+    private void ensureCapacity(long needed) {
+        if (needed <= buf.capacity()) return;
+        if (needed > Integer.MAX_VALUE) throw new IllegalStateException("Evaluation queue file " + filename + " is full");
+        long size = buf.capacity();
+        while (size < needed) size *= 2;
+        try {
+            buf.force();
+            buf = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(size, Integer.MAX_VALUE));
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot grow evaluation queue file " + filename + ": " + e.getMessage(), e);
+        }
+    }
+}
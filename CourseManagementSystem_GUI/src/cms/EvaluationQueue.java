@@ -0,0 +1,88 @@
+package cms;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * FIFO of evaluation commands stored as parallel primitive arrays in a ring buffer.
+ *
+ * No object is created per queued command, and processing reads the head fields
+ * directly, so draining even a very large queue does not allocate per item.
+ */
+final class EvaluationQueue {
+    private static final EvaluationCommand.Action[] ACTIONS = EvaluationCommand.Action.values();
+
+    private byte[] actions = new byte[16];
+    private Student[] students = new Student[16];
+    private double[] amounts = new double[16];
+    private int head;
+    private int size;
+
+    void add(EvaluationCommand.Action action, Student student, double amount) {
+        if (size == actions.length) grow();
+        int i = (head + size) % actions.length;
+        actions[i] = (byte) action.ordinal();
+        students[i] = student;
+        amounts[i] = amount;
+        size++;
+    }
+
+    boolean isEmpty() { return size == 0; }
+    int size() { return size; }
+
+    EvaluationCommand.Action peekAction() { return ACTIONS[actions[head]]; }
+    Student peekStudent() { return students[head]; }
+    double peekAmount() { return amounts[head]; }
+
+    void remove() {
+        if (size == 0) return;
+        students[head] = null;
+        head = (head + 1) % actions.length;
+        size--;
+    }
+
+    /** Moves the oldest {@code a.length} commands (at most all) into the given arrays. */
+    int drainTo(byte[] a, Student[] s, double[] m) {
+        int n = Math.min(size, a.length);
+        for (int i = 0; i < n; i++) {
+            int j = (head + i) % actions.length;
+            a[i] = actions[j];
+            s[i] = students[j];
+            m[i] = amounts[j];
+            students[j] = null;
+        }
+        head = (head + n) % actions.length;
+        size -= n;
+        if (size == 0) head = 0;
+        return n;
+    }
+
+    /** i-th queued command, 0 = next to process (creates an object; for views only). */
+    EvaluationCommand get(int i) {
+        int j = (head + i) % actions.length;
+        return new EvaluationCommand(ACTIONS[actions[j]], students[j], amounts[j]);
+    }
+
+    List<String> describe() {
+        List<String> res = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) res.add(get(i).toString());
+        return res;
+    }
+
+    private void grow() {
+        int n = actions.length * 2;
+        byte[] a = new byte[n];
+        Student[] s = new Student[n];
+        double[] m = new double[n];
+        for (int i = 0; i < size; i++) {
+            int j = (head + i) % actions.length;
+            a[i] = actions[j];
+            s[i] = students[j];
+            m[i] = amounts[j];
+        }
+        actions = a;
+        students = s;
+        amounts = m;
+        head = 0;
+    }
+}
@@ -0,0 +1,40 @@
+package cms;
+
+import java.util.AbstractList;
+
+/**
+ * Result messages of a batch of evaluations, kept as the values they are made from
+ * (student ID, action, amount, new score) and formatted only when read.
+ *
+ * Processing a large queue then allocates no String per command; callers that only
+ * count the results, or show a few of them, never build the rest.
+ */
+final class EvaluationResults extends AbstractList<String> {
+    private static final byte REWARD = (byte) EvaluationCommand.Action.REWARD.ordinal();
+
+    private final String[] ids;
+    private final byte[] actions;
+    private final double[] amounts;
+    private final double[] scores; // NaN: the student was not found
+
+    EvaluationResults(String[] ids, byte[] actions, double[] amounts, double[] scores) {
+        this.ids = ids;
+        this.actions = actions;
+        this.amounts = amounts;
+        this.scores = scores;
+    }
+
+    /** Message for one applied evaluation, e.g. "Rewarded S001 by 5.0. New score: 12.0". */
+    static String describe(boolean reward, String sid, double amt, double newScore) {
+        return (reward ? "Rewarded " : "Penalized ") + sid + " by " + amt + ". New score: " + newScore;
+    }
+
+    @Override
+    public String get(int i) {
+        if (Double.isNaN(scores[i])) return "Student not found: " + ids[i];
+        return describe(actions[i] == REWARD, ids[i], amounts[i], scores[i]);
+    }
+
+    @Override
+    public int size() { return ids.length; }
+}
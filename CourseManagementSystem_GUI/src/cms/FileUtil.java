@@ -1,7 +1,17 @@
 package cms;
 
 import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.function.Function;
 
 /**
  * Responsible for reading/writing CSV files.
@@ -14,163 +24,282 @@ import java.util.*;
  * Staff  CSV format: id,name,age,department
  *
  * This class handles missing files gracefully and prints friendly messages.
+ * Saves are atomic: a file is either fully replaced or left as it was.
  */
 public class FileUtil {
 
     // -------------------- LOAD STUDENTS --------------------
     public static void loadStudents(String filename, CourseManager manager) {
+        for (Student s : readStudents(filename)) manager.addStudent(s);
+    }
+
+    // Parses the file without touching a manager (used by loadStudents and DataBootstrap)
+    static List<Student> readStudents(String filename) {
         File f = new File(filename);
         if (!f.exists()) {
             System.out.println("Note: " + filename + " not found. Starting with empty students list.");
-            return;
+            return new ArrayList<>();
         }
-        try (BufferedReader br = new BufferedReader(new FileReader(f))) {
-            String line;
-            int count = 0;
-            while ((line = br.readLine()) != null) {
-                line = line.trim();
-                if (line.isEmpty()) continue;
-
-                // expected: id,name,age,major,score
-                String[] p = line.split(",", -1);
-                if (p.length < 5) {
-                    System.out.println("Skipping malformed student line: " + line);
-                    continue;
-                }
-                String id = p[0].trim();
-                String name = p[1].trim();
-                int age = safeInt(p[2]);
-                String major = p[3].trim();
-                double score = safeDouble(p[4]);
-
-                Student s = new Student(id, name, age, major, score);
-                manager.addStudent(s);
-                count++;
-            }
-            System.out.println("Loaded " + count + " students from " + filename);
+        LoadReport report = new LoadReport();
+        List<Student> rows = new ArrayList<>();
+        try {
+            rows = readRows(f, FileUtil::parseStudent, report);
+            System.out.println("Loaded " + rows.size() + " students from " + filename);
         } catch (IOException e) {
             System.out.println("Error reading " + filename + ": " + e.getMessage());
         }
+        report.print("student", filename);
+        return rows;
+    }
+
+    // expected: id,name,age,major,score
+    static Student parseStudent(CsvReader r) {
+        if (r.fieldCount() < 5) return null;
+        return new Student(r.field(0), r.field(1), r.intField(2, 0), r.field(3), r.doubleField(4, 0.0));
     }
 
     // -------------------- SAVE STUDENTS --------------------
-    public static void saveStudents(String filename, List<Student> students) {
-        try (PrintWriter pw = new PrintWriter(new FileWriter(filename))) {
-            for (Student s : students) {
+    public static boolean saveStudents(String filename, List<Student> students) {
+        try {
+            writeAtomically(filename, students, (w, s) -> {
                 // id,name,age,major,score
-                pw.println(s.getId() + "," + sanitize(s.getName()) + "," + s.getAge() + "," +
-                           sanitize(s.getMajor()) + "," + s.getPerformanceScore());
-            }
+                w.write(s.getId());
+                w.write(',');
+                writeSanitized(w, s.getName());
+                w.write(',');
+                w.write(Integer.toString(s.getAge()));
+                w.write(',');
+                writeSanitized(w, s.getMajor());
+                w.write(',');
+                w.write(Double.toString(s.getPerformanceScore()));
+            });
             System.out.println("Saved " + students.size() + " students to " + filename);
+            return true;
         } catch (IOException e) {
             System.out.println("Error saving students to " + filename + ": " + e.getMessage());
+            return false;
         }
     }
 
     // -------------------- LOAD STAFF --------------------
     public static void loadStaff(String filename, CourseManager manager) {
+        for (Staff st : readStaff(filename)) manager.addStaff(st);
+    }
+
+    // Parses the file without touching a manager (used by loadStaff and DataBootstrap)
+    static List<Staff> readStaff(String filename) {
         File f = new File(filename);
         if (!f.exists()) {
             System.out.println("Note: " + filename + " not found. Starting with empty staff list.");
-            return;
+            return new ArrayList<>();
         }
-        try (BufferedReader br = new BufferedReader(new FileReader(f))) {
-            String line;
-            int count = 0;
-            while ((line = br.readLine()) != null) {
-                line = line.trim();
-                if (line.isEmpty()) continue;
-
-                // expected: id,name,age,department
-                String[] p = line.split(",", -1);
-                if (p.length < 4) {
-                    System.out.println("Skipping malformed staff line: " + line);
-                    continue;
-                }
-                String id = p[0].trim();
-                String name = p[1].trim();
-                int age = safeInt(p[2]);
-                String dept = p[3].trim();
-
-                Staff st = new Staff(id, name, age, dept);
-                manager.addStaff(st);
-                count++;
-            }
-            System.out.println("Loaded " + count + " staff from " + filename);
+        LoadReport report = new LoadReport();
+        List<Staff> rows = new ArrayList<>();
+        try {
+            rows = readRows(f, FileUtil::parseStaff, report);
+            System.out.println("Loaded " + rows.size() + " staff from " + filename);
         } catch (IOException e) {
             System.out.println("Error reading " + filename + ": " + e.getMessage());
         }
+        report.print("staff", filename);
+        return rows;
+    }
+
+    // expected: id,name,age,department
+    static Staff parseStaff(CsvReader r) {
+        if (r.fieldCount() < 4) return null;
+        return new Staff(r.field(0), r.field(1), r.intField(2, 0), r.field(3));
     }
 
     // -------------------- SAVE STAFF --------------------
-    public static void saveStaff(String filename, List<Staff> staff) {
-        try (PrintWriter pw = new PrintWriter(new FileWriter(filename))) {
-            for (Staff st : staff) {
+    public static boolean saveStaff(String filename, List<Staff> staff) {
+        try {
+            writeAtomically(filename, staff, (w, st) -> {
                 // id,name,age,department
-                pw.println(st.getId() + "," + sanitize(st.getName()) + "," + st.getAge() + "," + sanitize(st.getDepartment()));
-            }
+                w.write(st.getId());
+                w.write(',');
+                writeSanitized(w, st.getName());
+                w.write(',');
+                w.write(Integer.toString(st.getAge()));
+                w.write(',');
+                writeSanitized(w, st.getDepartment());
+            });
             System.out.println("Saved " + staff.size() + " staff to " + filename);
+            return true;
         } catch (IOException e) {
             System.out.println("Error saving staff to " + filename + ": " + e.getMessage());
+            return false;
         }
     }
 
     // -------------------- LOAD COURSES (unchanged) --------------------
     public static void loadCourses(String filename, CourseManager manager) {
+        for (Course c : readCourses(filename)) manager.addCourse(c);
+    }
+
+    // Parses the file without touching a manager (used by loadCourses and DataBootstrap)
+    static List<Course> readCourses(String filename) {
         File f = new File(filename);
         if (!f.exists()) {
             System.out.println("Note: " + filename + " not found. Starting with empty courses list.");
-            return;
+            return new ArrayList<>();
         }
-        try (BufferedReader br = new BufferedReader(new FileReader(f))) {
-            String line;
-            int count = 0;
-            while ((line = br.readLine()) != null) {
-                line = line.trim();
-                if (line.isEmpty()) continue;
-                String[] p = line.split(",", -1);
-                if (p.length < 4) {
-                    System.out.println("Skipping malformed course line: " + line);
-                    continue;
-                }
-                String id = p[0].trim();
-                String name = p[1].trim();
-                int cap = safeInt(p[2]);
-                String instr = p[3].trim();
-                Course c = new Course(id, name, cap, instr);
-                if (p.length >= 5 && !p[4].trim().isEmpty()) {
-                    String[] sids = p[4].split(";");
-                    for (String sid : sids) if (!sid.isBlank()) c.getEnrolledStudentIds().add(sid.trim());
-                }
-                manager.addCourse(c);
-                count++;
-            }
-            System.out.println("Loaded " + count + " courses from " + filename);
+        LoadReport report = new LoadReport();
+        List<Course> rows = new ArrayList<>();
+        try {
+            rows = readRows(f, FileUtil::parseCourse, report);
+            System.out.println("Loaded " + rows.size() + " courses from " + filename);
         } catch (IOException e) {
             System.out.println("Error reading " + filename + ": " + e.getMessage());
         }
+        report.print("course", filename);
+        return rows;
+    }
+
+    // expected: courseId,courseName,capacity,instructorId,studentA;studentB;studentC
+    static Course parseCourse(CsvReader r) {
+        if (r.fieldCount() < 4) return null;
+        Course c = new Course(r.field(0), r.field(1), r.intField(2, 0), r.field(3));
+        if (r.fieldCount() >= 5 && !r.isEmpty(4)) {
+            List<String> roster = new ArrayList<>();
+            r.splitField(4, ';', roster::add);
+            c.restoreEnrollments(roster);
+        }
+        return c;
     }
 
     // -------------------- SAVE COURSES (unchanged) --------------------
-    public static void saveCourses(String filename, List<Course> courses) {
-        try (PrintWriter pw = new PrintWriter(new FileWriter(filename))) {
-            for (Course c : courses) pw.println(c.toCSV());
+    public static boolean saveCourses(String filename, List<Course> courses) {
+        try {
+            writeAtomically(filename, courses, (w, c) -> {
+                // same layout as Course.toCSV()
+                w.write(c.getCourseId());
+                w.write(',');
+                writeSanitized(w, c.getCourseName());
+                w.write(',');
+                w.write(Integer.toString(c.getCapacity()));
+                w.write(',');
+                w.write(c.getInstructorId());
+                w.write(',');
+                boolean first = true;
+                for (String sid : c.getEnrolledStudentIds()) {
+                    if (!first) w.write(';');
+                    w.write(sid);
+                    first = false;
+                }
+            });
             System.out.println("Saved " + courses.size() + " courses to " + filename);
+            return true;
         } catch (IOException e) {
             System.out.println("Error saving courses to " + filename + ": " + e.getMessage());
+            return false;
         }
     }
 
     // -------------------- Helpers --------------------
-    private static int safeInt(String s) {
-        try { return Integer.parseInt(s.trim()); } catch (Exception e) { return 0; }
+    // Files at least this large are memory-mapped and parsed in parallel chunks
+    static final long PARALLEL_LOAD_THRESHOLD = 16L * 1024 * 1024;
+
+    // Parses every row in file order; malformed rows are counted in the report
+    static <T> List<T> readRows(File f, Function<CsvReader, T> parser, LoadReport report) throws IOException {
+        if (f.length() >= PARALLEL_LOAD_THRESHOLD) return ParallelCsvLoader.load(f.toPath(), parser, report);
+        List<T> rows = new ArrayList<>();
+        try (CsvReader r = new CsvReader(new FileReader(f))) {
+            while (r.next()) {
+                T row = parser.apply(r);
+                if (row == null) report.malformed(r.lineNumber());
+                else rows.add(row);
+            }
+        }
+        return rows;
+    }
+
+    // Writes one CSV row (without the line break)
+    interface RowWriter<T> {
+        void write(Writer w, T row) throws IOException;
+    }
+
+    private static final int WRITE_BUFFER_CHARS = 256 * 1024;
+
+    // Writes the whole content of a file to an open channel
+    interface ChannelBody {
+        void write(FileChannel ch) throws IOException;
+    }
+
+    /**
+     * Crash-safe save: rows go to filename.tmp through a large buffer, the temp file is
+     * fsynced and then renamed over the target. Readers (and a restart after power loss)
+     * see either the old file or the complete new one, never a half-written file.
+     */
+    static <T> void writeAtomically(String filename, List<T> rows, RowWriter<T> rowWriter) throws IOException {
+        String newline = System.lineSeparator();
+        replaceAtomically(filename, ch -> {
+            Writer w = new BufferedWriter(Channels.newWriter(ch, Charset.defaultCharset().newEncoder(), -1), WRITE_BUFFER_CHARS);
+            for (T row : rows) {
+                rowWriter.write(w, row);
+                w.write(newline);
+            }
+            w.flush();
+        });
+    }
+
+    /** Runs {@code body} against filename.tmp, fsyncs it and renames it over filename. */
+    static void replaceAtomically(String filename, ChannelBody body) throws IOException {
+        Path target = Paths.get(filename).toAbsolutePath();
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING)) {
+                body.write(ch);
+                ch.force(true);
+            }
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        syncDirectory(target.getParent());
+    }
+
+    // makes the rename itself durable; not supported on every platform, so best effort
+    private static void syncDirectory(Path dir) {
+        if (dir == null) return;
+        try (FileChannel ch = FileChannel.open(dir, StandardOpenOption.READ)) {
+            ch.force(true);
+        } catch (IOException e) {
+            // ignore: the data is already synced, only the directory entry may lag
+        }
+    }
+
+    // Same as sanitize(s) but writes directly, without building a new String
+    private static void writeSanitized(Writer w, String s) throws IOException {
+        if (s == null) return;
+        if (s.indexOf(',') < 0) {
+            w.write(s);
+            return;
+        }
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c != ',') w.write(c);
+        }
+    }
+
+    // id,name,age,major,score
+    static String studentLine(Student s) {
+        return s.getId() + "," + sanitize(s.getName()) + "," + s.getAge() + "," +
+               sanitize(s.getMajor()) + "," + s.getPerformanceScore();
     }
 
-    private static double safeDouble(String s) {
-        try { return Double.parseDouble(s.trim()); } catch (Exception e) { return 0.0; }
+    // id,name,age,department
+    static String staffLine(Staff st) {
+        return st.getId() + "," + sanitize(st.getName()) + "," + st.getAge() + "," + sanitize(st.getDepartment());
     }
 
-    private static String sanitize(String s) {
+    static String sanitize(String s) {
         if (s == null) return "";
         return s.replace(",", ""); // simple sanitization for our CSV
     }
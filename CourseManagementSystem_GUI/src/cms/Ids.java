@@ -0,0 +1,16 @@
+package cms;
+
+import java.util.Locale;
+
+/**
+ * Helper for case-insensitive ID keys used by the lookup indexes.
+ */
+final class Ids {
+
+    private Ids() { }
+
+    // IDs are compared with equalsIgnoreCase everywhere, so indexes use the folded form as key
+    static String key(String id) {
+        return id == null ? null : id.trim().toLowerCase(Locale.ROOT);
+    }
+}
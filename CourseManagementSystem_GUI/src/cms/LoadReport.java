@@ -0,0 +1,42 @@
+package cms;
+
+/**
+ * Collects malformed lines seen while loading a file and prints one summary
+ * at the end, instead of one console line per bad row.
+ */
+class LoadReport {
+    private static final int SAMPLE_SIZE = 5;
+
+    private int malformed;
+    private final int[] sampleLines = new int[SAMPLE_SIZE];
+
+    void malformed(int lineNumber) {
+        if (malformed < SAMPLE_SIZE) sampleLines[malformed] = lineNumber;
+        malformed++;
+    }
+
+    int malformedCount() { return malformed; }
+
+    /** Adds the findings of a chunk whose line 1 is line {@code lineOffset + 1} of the file. */
+    void merge(LoadReport other, int lineOffset) {
+        for (int i = 0; i < Math.min(other.malformed, SAMPLE_SIZE); i++) {
+            if (malformed + i < SAMPLE_SIZE) sampleLines[malformed + i] = other.sampleLines[i] + lineOffset;
+        }
+        malformed += other.malformed;
+    }
+
+    /** Prints e.g. "Skipped 3 malformed student lines in students.csv (lines 4, 9, 12)". */
+    void print(String kind, String filename) {
+        if (malformed == 0) return;
+        StringBuilder sb = new StringBuilder("Skipped ").append(malformed).append(" malformed ")
+                .append(kind).append(malformed == 1 ? " line" : " lines").append(" in ").append(filename)
+                .append(" (line").append(malformed == 1 ? " " : "s ");
+        int shown = Math.min(malformed, SAMPLE_SIZE);
+        for (int i = 0; i < shown; i++) {
+            if (i > 0) sb.append(", ");
+            sb.append(sampleLines[i]);
+        }
+        if (malformed > shown) sb.append(", ...");
+        System.out.println(sb.append(")"));
+    }
+}
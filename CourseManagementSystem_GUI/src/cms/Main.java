@@ -2,8 +2,6 @@ package cms;
 
 import java.util.List;
 import java.util.Scanner;
-import java.util.Collections;
-import java.util.Comparator;
 
 
 /**
@@ -13,14 +11,19 @@ public class Main {
     private static final String STUDENTS_FILE = "students.csv";
     private static final String STAFF_FILE = "staff.csv";
     private static final String COURSES_FILE = "courses.csv";
+    private static final String JOURNAL_FILE = "changes.log";
+    private static final String SNAPSHOT_FILE = "cms.snapshot";
+    private static final String QUEUE_FILE = "evaluations.queue";
+    private static final int SEARCH_LIMIT = 50;
 
     public static void main(String[] args) {
         CourseManager manager = new CourseManager();
         Scanner sc = new Scanner(System.in);
 
-        FileUtil.loadStudents(STUDENTS_FILE, manager);
-        FileUtil.loadStaff(STAFF_FILE, manager);
-        FileUtil.loadCourses(COURSES_FILE, manager);
+        // the three files are read in parallel; warnings are roster entries pointing nowhere
+        DataStore store = new DataStore(manager, STUDENTS_FILE, STAFF_FILE, COURSES_FILE, JOURNAL_FILE, SNAPSHOT_FILE, QUEUE_FILE);
+        List<String> warnings = store.load();
+        warnings.forEach(w -> System.out.println("Warning: " + w));
 
         boolean running = true;
         showWelcome();
@@ -33,12 +36,12 @@ public class Main {
 
                 case "1":
                     handleAddStudent(manager, sc);
-                    FileUtil.saveStudents(STUDENTS_FILE, manager.getAllStudents());
+                    store.commit();
                     break;
 
                 case "2":
                     handleAddStaff(manager, sc);
-                    FileUtil.saveStaff(STAFF_FILE, manager.getAllStaff());
+                    store.commit();
                     break;
 
                 case "3":
@@ -62,13 +65,16 @@ public class Main {
                         Student s = manager.findStudentById(id);
                         if (s == null)
                             System.out.println("Student not found.");
-                        else
+                        else {
                             System.out.println(s);
+                            System.out.printf("Rank %d of %d by score (above %.1f%% of other students)%n",
+                                    manager.getScoreRank(s), manager.getStudentCount(), manager.getScorePercentile(s));
+                        }
 
                     } else if (opt.equals("2")) {
-                        System.out.print("Enter student name (exact match): ");
+                        System.out.print("Enter student name (full name, start of name or surname): ");
                         String nm = sc.nextLine().trim();
-                        List<Student> found = manager.findStudentsByName(nm);
+                        List<Student> found = manager.searchStudentsByName(nm, SEARCH_LIMIT);
                         if (found.isEmpty())
                             System.out.println("No students found with that name.");
                         else
@@ -81,17 +87,17 @@ public class Main {
 
                 case "6":
                     handleUpdateStudent(manager, sc);
-                    FileUtil.saveStudents(STUDENTS_FILE, manager.getAllStudents());
+                    store.commit();
                     break;
 
                 case "7":
                     handleDeleteStudent(manager, sc);
-                    FileUtil.saveStudents(STUDENTS_FILE, manager.getAllStudents());
+                    store.commit();
                     break;
 
                 case "8":
                     handleAddCourse(manager, sc);
-                    FileUtil.saveCourses(COURSES_FILE, manager.getAllCourses());
+                    store.commit();
                     break;
 
                 case "9":
@@ -100,57 +106,56 @@ public class Main {
 
                 case "10":
                     handleEnroll(manager, sc);
-                    FileUtil.saveCourses(COURSES_FILE, manager.getAllCourses());
-                    FileUtil.saveStudents(STUDENTS_FILE, manager.getAllStudents());
+                    store.commit();
                     break;
 
                 case "11":
                     handleRemoveEnrollment(manager, sc);
-                    FileUtil.saveCourses(COURSES_FILE, manager.getAllCourses());
+                    store.commit();
                     break;
 
                 case "12":
                     handleImmediateEvaluation(manager, sc);
-                    FileUtil.saveStudents(STUDENTS_FILE, manager.getAllStudents());
+                    store.commit();
                     break;
 
                 case "13":
                     System.out.print("Enter schedule command (R,studentId,amount) or (P,studentId,amount): ");
                     String cmd = sc.nextLine().trim();
-                    manager.scheduleEvaluation(cmd);
-                    System.out.println("Scheduled: " + cmd);
+                    System.out.println(manager.scheduleEvaluation(cmd));
                     break;
 
                 case "14":
                     System.out.println(manager.processNextEvaluation());
-                    FileUtil.saveStudents(STUDENTS_FILE, manager.getAllStudents());
+                    store.commit();
                     break;
 
                 case "15":
                     List<String> results = manager.processAllEvaluations();
                     if (results.isEmpty()) System.out.println("No scheduled evaluations.");
                     else results.forEach(System.out::println);
-                    FileUtil.saveStudents(STUDENTS_FILE, manager.getAllStudents());
+                    store.commit();
                     break;
 
                 case "16":
-                    if (manager.getEvaluationQueue().isEmpty())
+                    List<String> pending = manager.getEvaluationQueue();
+                    if (pending.isEmpty())
                         System.out.println("Queue is empty.");
                     else
-                        manager.getEvaluationQueue().forEach(System.out::println);
+                        pending.forEach(System.out::println);
                     break;
 
                 case "17":
-                    FileUtil.saveStudents(STUDENTS_FILE, manager.getAllStudents());
-                    FileUtil.saveStaff(STAFF_FILE, manager.getAllStaff());
-                    FileUtil.saveCourses(COURSES_FILE, manager.getAllCourses());
-                    System.out.println("Data saved.");
+                    System.out.println(store.saveAll() ? "Data saved." : "Some files could not be saved; changes are kept in " + JOURNAL_FILE + ".");
+                    break;
+
+                case "18":
+                    System.out.println(manager.processAllEvaluationsCoalesced());
+                    store.commit();
                     break;
 
                 case "0":
-                    FileUtil.saveStudents(STUDENTS_FILE, manager.getAllStudents());
-                    FileUtil.saveStaff(STAFF_FILE, manager.getAllStaff());
-                    FileUtil.saveCourses(COURSES_FILE, manager.getAllCourses());
+                    store.saveAll();
                     System.out.println("Saved. Exiting. Goodbye!");
                     running = false;
                     break;
@@ -188,6 +193,7 @@ public class Main {
         System.out.println("15. Process all scheduled evaluations");
         System.out.println("16. View scheduled evaluations queue");
         System.out.println("17. Save now");
+        System.out.println("18. Process all scheduled evaluations (net per student, summary only)");
         System.out.println("0. Save & Exit");
         System.out.print("Enter choice: ");
     }
@@ -258,20 +264,17 @@ public class Main {
     
         switch (choice) {
             case "1":
-                Collections.sort(students,
-                        Comparator.comparing(Student::getId, String.CASE_INSENSITIVE_ORDER));
+                students = manager.getStudentsSorted(StudentSort.ID);
                 System.out.println("Sorted by ID.");
                 break;
     
             case "2":
-                Collections.sort(students,
-                        Comparator.comparing(Student::getName, String.CASE_INSENSITIVE_ORDER));
+                students = manager.getStudentsSorted(StudentSort.NAME);
                 System.out.println("Sorted by Name.");
                 break;
     
             case "3":
-                Collections.sort(students,
-                        Comparator.comparingDouble(Student::getPerformanceScore).reversed());
+                students = manager.getStudentsSorted(StudentSort.SCORE);
                 System.out.println("Sorted by Performance Score (High → Low).");
                 break;
     
@@ -306,22 +309,17 @@ public class Main {
     
         switch (choice) {
             case "1":
-                Collections.sort(staffList,
-                        Comparator.comparing(Staff::getId, String.CASE_INSENSITIVE_ORDER));
+                staffList = manager.getStaffSorted(StaffSort.ID);
                 System.out.println("Sorted by Staff ID.");
                 break;
     
             case "2":
-                Collections.sort(staffList,
-                        Comparator.comparing(Staff::getName, String.CASE_INSENSITIVE_ORDER));
+                staffList = manager.getStaffSorted(StaffSort.NAME);
                 System.out.println("Sorted by Name.");
                 break;
     
             case "3":
-                Collections.sort(staffList,
-                        Comparator.comparing(
-                                s -> s.getDepartment() == null ? "" : s.getDepartment(),
-                                String.CASE_INSENSITIVE_ORDER));
+                staffList = manager.getStaffSorted(StaffSort.DEPARTMENT);
                 System.out.println("Sorted by Department.");
                 break;
     
@@ -411,22 +409,17 @@ public class Main {
     
         switch (choice) {
             case "1":
-                Collections.sort(courseList,
-                        Comparator.comparing(Course::getCourseId, String.CASE_INSENSITIVE_ORDER));
+                courseList = manager.getCoursesSorted(CourseSort.ID);
                 System.out.println("Sorted by Course ID.");
                 break;
     
             case "2":
-                Collections.sort(courseList,
-                        Comparator.comparing(Course::getCourseName, String.CASE_INSENSITIVE_ORDER));
+                courseList = manager.getCoursesSorted(CourseSort.NAME);
                 System.out.println("Sorted by Course Name.");
                 break;
     
             case "3":
-                Collections.sort(courseList,
-                        Comparator.comparingInt(
-                                (Course c) -> c.getEnrolledStudentIds().size()
-                        ).reversed());
+                courseList = manager.getCoursesSorted(CourseSort.ENROLLED);
                 System.out.println("Sorted by Enrolled Student Count (High to Low).");
                 break;
     
@@ -476,13 +469,8 @@ public class Main {
         String amtStr = sc.nextLine().trim();
         double amt;
         try { amt = Double.parseDouble(amtStr); } catch (NumberFormatException e) { System.out.println("Invalid amount."); return; }
-        if (rp.equalsIgnoreCase("R")) {
-            s.setPerformanceScore(s.getPerformanceScore() + amt);
-            System.out.println("Reward applied. New score: " + s.getPerformanceScore());
-        } else {
-            s.setPerformanceScore(Math.max(0, s.getPerformanceScore() - amt));
-            System.out.println("Penalty applied. New score: " + s.getPerformanceScore());
-        }
+        if (rp.equalsIgnoreCase("R")) System.out.println(Evaluation.applyImmediateReward(manager, sid, amt));
+        else System.out.println(Evaluation.applyImmediatePenalty(manager, sid, amt));
     }
 
     // helpers for safe input
@@ -0,0 +1,55 @@
+package cms;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Values indexed by a dense ordinal (see StringDictionary), e.g. students by their ID code.
+ *
+ * Slots live in fixed-size pages that are created on first use and never move, so
+ * get and set need no lock and growing never copies values. Only adding a page is
+ * synchronized; the page directory is copy-on-write.
+ */
+final class OrdinalTable<T> {
+    private static final int PAGE_BITS = 10;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    // each element is an AtomicReferenceArray of PAGE_SIZE slots, or null until a slot in it is set
+    private volatile Object[] pages = new Object[0];
+
+    /** The value at {@code ordinal}, or null if none (also for -1). */
+    T get(int ordinal) {
+        AtomicReferenceArray<T> page = page(ordinal);
+        return page == null ? null : page.get(ordinal & (PAGE_SIZE - 1));
+    }
+
+    void set(int ordinal, T value) {
+        AtomicReferenceArray<T> page = page(ordinal);
+        if (page == null) {
+            if (value == null) return;
+            page = addPage(ordinal >>> PAGE_BITS);
+        }
+        page.set(ordinal & (PAGE_SIZE - 1), value);
+    }
+
+    // ---------------- helpers ----------------
+    @SuppressWarnings("unchecked")
+    private AtomicReferenceArray<T> page(int ordinal) {
+        if (ordinal < 0) return null;
+        Object[] dir = pages;
+        int i = ordinal >>> PAGE_BITS;
+        return i < dir.length ? (AtomicReferenceArray<T>) dir[i] : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized AtomicReferenceArray<T> addPage(int i) {
+        Object[] dir = pages;
+        if (i < dir.length && dir[i] != null) return (AtomicReferenceArray<T>) dir[i];
+        if (i >= dir.length) dir = Arrays.copyOf(dir, Math.max(i + 1, dir.length * 2));
+        else dir = dir.clone();
+        AtomicReferenceArray<T> page = new AtomicReferenceArray<>(PAGE_SIZE);
+        dir[i] = page;
+        pages = dir; // publish the new directory; pages already handed out stay the same
+        return page;
+    }
+}
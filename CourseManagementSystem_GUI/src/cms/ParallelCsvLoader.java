@@ -0,0 +1,132 @@
+package cms;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Loader mode for large CSV files (used by FileUtil above a size threshold).
+ *
+ * The file is memory-mapped and cut into chunks at line boundaries. Chunks are
+ * parsed on the common fork-join pool and the rows are returned in file order,
+ * so callers can add them with the usual first-wins duplicate rule.
+ */
+final class ParallelCsvLoader {
+    private static final long MIN_CHUNK_BYTES = 4L * 1024 * 1024;
+    private static final long MAX_CHUNK_BYTES = 1L << 30; // must fit one MappedByteBuffer
+
+    private ParallelCsvLoader() { }
+
+    static <T> List<T> load(Path file, Function<CsvReader, T> parser, LoadReport report) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long[] bounds = chunkBounds(ch);
+            List<Chunk<T>> chunks;
+            try {
+                chunks = IntStream.range(0, bounds.length - 1).parallel()
+                        .mapToObj(i -> parseChunk(ch, bounds[i], bounds[i + 1], parser))
+                        .collect(Collectors.toList());
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+
+            int total = 0;
+            for (Chunk<T> c : chunks) total += c.rows.size();
+            List<T> rows = new ArrayList<>(total);
+            int lineOffset = 0;
+            for (Chunk<T> c : chunks) {
+                rows.addAll(c.rows);
+                report.merge(c.report, lineOffset);
+                lineOffset += c.lines;
+            }
+            return rows;
+        }
+    }
+
+    // ---------------- helpers ----------------
+    private static class Chunk<T> {
+        final List<T> rows = new ArrayList<>();
+        final LoadReport report = new LoadReport();
+        int lines;
+    }
+
+    private static <T> Chunk<T> parseChunk(FileChannel ch, long start, long end, Function<CsvReader, T> parser) {
+        Chunk<T> chunk = new Chunk<>();
+        if (end <= start) return chunk;
+        try {
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            // '\n' never occurs inside a multi-byte character, so every chunk decodes on its own
+            try (CsvReader r = new CsvReader(new InputStreamReader(new ByteBufferInputStream(buf), Charset.defaultCharset()))) {
+                while (r.next()) {
+                    T row = parser.apply(r);
+                    if (row == null) chunk.report.malformed(r.lineNumber());
+                    else chunk.rows.add(row);
+                }
+                chunk.lines = r.lineNumber();
+            }
+            return chunk;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /** Chunk start offsets plus the file size; every inner bound is just after a '\n'. */
+    private static long[] chunkBounds(FileChannel ch) throws IOException {
+        long size = ch.size();
+        int cores = Runtime.getRuntime().availableProcessors();
+        long n = Math.max(1, Math.min(cores * 4L, size / MIN_CHUNK_BYTES));
+        n = Math.max(n, (size + MAX_CHUNK_BYTES - 1) / MAX_CHUNK_BYTES);
+
+        long[] bounds = new long[(int) n + 1];
+        bounds[(int) n] = size;
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        for (int i = 1; i < n; i++) {
+            long pos = Math.max(bounds[i - 1], size * i / n);
+            bounds[i] = nextLineStart(ch, pos, probe);
+        }
+        return bounds;
+    }
+
+    private static long nextLineStart(FileChannel ch, long pos, ByteBuffer probe) throws IOException {
+        long size = ch.size();
+        while (pos < size) {
+            probe.clear();
+            int n = ch.read(probe, pos);
+            if (n <= 0) break;
+            for (int i = 0; i < n; i++) if (probe.get(i) == '\n') return pos + i + 1;
+            pos += n;
+        }
+        return size;
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buf;
+
+        ByteBufferInputStream(ByteBuffer buf) { this.buf = buf; }
+
+        @Override
+        public int read() {
+            return buf.hasRemaining() ? (buf.get() & 0xFF) : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) return 0;
+            if (!buf.hasRemaining()) return -1;
+            int n = Math.min(len, buf.remaining());
+            buf.get(b, off, n);
+            return n;
+        }
+    }
+}
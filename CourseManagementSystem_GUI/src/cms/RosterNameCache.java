@@ -0,0 +1,45 @@
+package cms;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Enrolled-student names per course, joined for display ("Ann Lee, Bo Chen, ...").
+ *
+ * A joined string is reused until the course's roster changes or a student is
+ * added, renamed or deleted (both tracked by version numbers), so repainting or
+ * re-sorting a course table does not resolve the same rosters again.
+ */
+final class RosterNameCache {
+
+    private static final class Entry {
+        final long rosterVersion;
+        final long namesVersion;
+        final String names;
+
+        Entry(long rosterVersion, long namesVersion, String names) {
+            this.rosterVersion = rosterVersion;
+            this.namesVersion = namesVersion;
+            this.names = names;
+        }
+    }
+
+    private final ConcurrentHashMap<Course, Entry> entries = new ConcurrentHashMap<>();
+
+    String get(Course c, long namesVersion, CourseManager manager) {
+        long rosterVersion = c.getRosterVersion(); // read before the roster, see SortedViewCache.get
+        Entry e = entries.get(c);
+        if (e != null && e.rosterVersion == rosterVersion && e.namesVersion == namesVersion) return e.names;
+
+        StringBuilder names = new StringBuilder();
+        for (String sid : c.getEnrolledStudentIds()) {
+            Student s = manager.findStudentById(sid);
+            if (names.length() > 0) names.append(", ");
+            names.append(s != null ? s.getName() : sid);
+        }
+        String joined = names.toString();
+        entries.put(c, new Entry(rosterVersion, namesVersion, joined));
+        return joined;
+    }
+
+    void remove(Course c) { entries.remove(c); }
+}
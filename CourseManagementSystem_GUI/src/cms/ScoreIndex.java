@@ -0,0 +1,193 @@
+package cms;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+
+/**
+ * Students ordered by performance score (highest first, ties in the order they were added), kept up to date
+ * as scores change instead of sorting all students for every leaderboard.
+ *
+ * It is a treap (randomized balanced search tree) where each node also stores the
+ * size of its subtree, so top-K/bottom-K cost O(log n + K) and rank/percentile O(log n).
+ * CourseManager calls update() after every score change; all methods are synchronized.
+ */
+final class ScoreIndex {
+
+    private static final class Node {
+        final Student student;
+        final double score; // score when indexed, so the node can be found again after a change
+        final long seq;     // tie-breaker; kept across updates so ties stay in the order students were added
+        final int priority;
+        int size = 1;
+        Node left, right;   // left: higher scores
+
+        Node(Student student, double score, long seq, int priority) {
+            this.student = student;
+            this.score = score;
+            this.seq = seq;
+            this.priority = priority;
+        }
+    }
+
+    private Node root;
+    private final IdentityHashMap<Student, Node> nodes = new IdentityHashMap<>();
+    private long nextSeq;
+    private long version; // bumped whenever the order changes
+    private int seed = 0x2545F491;
+
+    synchronized void add(Student s) {
+        if (nodes.containsKey(s)) return;
+        insert(s, nextSeq++);
+    }
+
+    synchronized void remove(Student s) {
+        Node n = nodes.remove(s);
+        if (n == null) return;
+        root = delete(root, n);
+        version++;
+    }
+
+    /** Re-positions the student after a score change. */
+    synchronized void update(Student s) {
+        Node n = nodes.get(s);
+        if (n == null || n.score == s.getPerformanceScore()) return;
+        root = delete(root, n);
+        insert(s, n.seq);
+    }
+
+    synchronized int size() { return nodes.size(); }
+
+    synchronized long version() { return version; }
+
+    /** The {@code k} highest-scoring students, best first. */
+    synchronized List<Student> top(int k) {
+        List<Student> res = new ArrayList<>(Math.min(Math.max(k, 0), nodes.size()));
+        ArrayDeque<Node> stack = new ArrayDeque<>();
+        Node n = root;
+        while (res.size() < k && (n != null || !stack.isEmpty())) {
+            while (n != null) { stack.push(n); n = n.left; }
+            n = stack.pop();
+            res.add(n.student);
+            n = n.right;
+        }
+        return res;
+    }
+
+    /** The {@code k} lowest-scoring students, lowest first. */
+    synchronized List<Student> bottom(int k) {
+        List<Student> res = new ArrayList<>(Math.min(Math.max(k, 0), nodes.size()));
+        ArrayDeque<Node> stack = new ArrayDeque<>();
+        Node n = root;
+        while (res.size() < k && (n != null || !stack.isEmpty())) {
+            while (n != null) { stack.push(n); n = n.right; }
+            n = stack.pop();
+            res.add(n.student);
+            n = n.left;
+        }
+        return res;
+    }
+
+    /** All students, highest score first. */
+    synchronized List<Student> toList() { return top(nodes.size()); }
+
+    /** 1 + number of students with a strictly higher score (tied students share a rank); 0 if not indexed. */
+    synchronized int rank(Student s) {
+        Node n = nodes.get(s);
+        return n == null ? 0 : 1 + countHigher(n.score);
+    }
+
+    /** Percentage of the other students with a strictly lower score (0-100); -1 if not indexed. */
+    synchronized double percentile(Student s) {
+        Node n = nodes.get(s);
+        if (n == null) return -1;
+        if (nodes.size() == 1) return 100.0;
+        return 100.0 * countLower(n.score) / (nodes.size() - 1);
+    }
+
+    // ---------------- treap helpers ----------------
+    private void insert(Student s, long seq) {
+        seed ^= seed << 13; seed ^= seed >>> 17; seed ^= seed << 5; // xorshift
+        Node n = new Node(s, s.getPerformanceScore(), seq, seed);
+        nodes.put(s, n);
+        root = insert(root, n);
+        version++;
+    }
+
+    // negative if a sorts before b (higher score first, then seq)
+    private static int compare(Node a, Node b) {
+        int c = Double.compare(b.score, a.score);
+        return c != 0 ? c : Long.compare(a.seq, b.seq);
+    }
+
+    private static int size(Node n) { return n == null ? 0 : n.size; }
+
+    private static Node fix(Node n) {
+        n.size = 1 + size(n.left) + size(n.right);
+        return n;
+    }
+
+    private static Node insert(Node t, Node n) {
+        if (t == null) return n;
+        if (compare(n, t) < 0) {
+            t.left = insert(t.left, n);
+            if (t.left.priority > t.priority) return rotateRight(t);
+        } else {
+            t.right = insert(t.right, n);
+            if (t.right.priority > t.priority) return rotateLeft(t);
+        }
+        return fix(t);
+    }
+
+    private static Node rotateRight(Node t) {
+        Node l = t.left;
+        t.left = l.right;
+        l.right = fix(t);
+        return fix(l);
+    }
+
+    private static Node rotateLeft(Node t) {
+        Node r = t.right;
+        t.right = r.left;
+        r.left = fix(t);
+        return fix(r);
+    }
+
+    private static Node merge(Node a, Node b) {
+        if (a == null) return b;
+        if (b == null) return a;
+        if (a.priority > b.priority) {
+            a.right = merge(a.right, b);
+            return fix(a);
+        }
+        b.left = merge(a, b.left);
+        return fix(b);
+    }
+
+    private static Node delete(Node t, Node target) {
+        if (t == null) return null;
+        if (t == target) return merge(t.left, t.right);
+        if (compare(target, t) < 0) t.left = delete(t.left, target);
+        else t.right = delete(t.right, target);
+        return fix(t);
+    }
+
+    private int countHigher(double score) {
+        int count = 0;
+        for (Node n = root; n != null; ) {
+            if (n.score > score) { count += size(n.left) + 1; n = n.right; }
+            else n = n.left;
+        }
+        return count;
+    }
+
+    private int countLower(double score) {
+        int count = 0;
+        for (Node n = root; n != null; ) {
+            if (n.score < score) { count += size(n.right) + 1; n = n.left; }
+            else n = n.right;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,195 @@
+package cms;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Binary snapshot of all three data sets (cms.snapshot), written next to the CSVs.
+ *
+ * Loading it skips CSV tokenizing and number parsing. The header stores the size and
+ * modification time of each CSV as they were when the snapshot was written. If a CSV
+ * has changed since (edited by hand, saved by an older version), the snapshot is stale
+ * and DataStore loads the CSVs instead.
+ *
+ * Layout (version 1), all numbers big-endian:
+ *   int magic, int version, 3 x (long csvLength, long csvLastModified)
+ *   int students, then per student: str id, str name, int age, str major, double score
+ *   int staff,    then per staff:   str id, str name, int age, str department
+ *   int courses,  then per course:  str id, str name, int capacity, str instructor,
+ *                                   int rosterSize, per entry: int studentOrdinal (-1 = str id follows)
+ * where str is an int byte length followed by UTF-8 bytes, and studentOrdinal is the
+ * position of the student in the snapshot's student list.
+ */
+class Snapshot {
+    private static final int MAGIC = 0x434D5353; // "CMSS"
+    private static final int VERSION = 1;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private final String filename;
+    private final String[] csvFiles;
+
+    /** Parsed snapshot content, ready to be added to a manager. */
+    static class Data {
+        final List<Student> students = new ArrayList<>();
+        final List<Staff> staff = new ArrayList<>();
+        final List<Course> courses = new ArrayList<>();
+
+        void applyTo(CourseManager manager) {
+            manager.loadStudents(students);
+            manager.loadStaff(staff);
+            manager.loadCourses(courses);
+        }
+    }
+
+    Snapshot(String filename, String studentsFile, String staffFile, String coursesFile) {
+        this.filename = filename;
+        this.csvFiles = new String[]{studentsFile, staffFile, coursesFile};
+    }
+
+    /** Reads the snapshot, or returns null if it is missing, stale or unreadable. */
+    Data readIfFresh() {
+        File f = new File(filename);
+        if (!f.exists()) return null;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(f), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return null;
+            for (String csv : csvFiles) {
+                File c = new File(csv);
+                long length = in.readLong();
+                long modified = in.readLong();
+                if (length != fileLength(c) || modified != c.lastModified()) return null;
+            }
+            Data data = new Data();
+            byte[] buf = new byte[256];
+
+            int n = in.readInt();
+            Student[] byOrdinal = new Student[n];
+            for (int i = 0; i < n; i++) {
+                Student s = new Student(readStr(in, buf), readStr(in, buf), in.readInt(), readStr(in, buf), in.readDouble());
+                byOrdinal[i] = s;
+                data.students.add(s);
+            }
+            n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                data.staff.add(new Staff(readStr(in, buf), readStr(in, buf), in.readInt(), readStr(in, buf)));
+            }
+            n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                Course c = new Course(readStr(in, buf), readStr(in, buf), in.readInt(), readStr(in, buf));
+                int size = in.readInt();
+                List<String> roster = new ArrayList<>(size);
+                for (int j = 0; j < size; j++) {
+                    int ordinal = in.readInt();
+                    roster.add(ordinal >= 0 ? byOrdinal[ordinal].getId() : readStr(in, buf));
+                }
+                c.restoreEnrollments(roster);
+                data.courses.add(c);
+            }
+            System.out.println("Loaded " + data.students.size() + " students, " + data.staff.size() + " staff and "
+                    + data.courses.size() + " courses from " + filename);
+            return data;
+        } catch (IOException | RuntimeException e) {
+            System.out.println("Ignoring unreadable snapshot " + filename + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    /** Writes the manager's current data. Call right after the CSVs were saved. */
+    boolean write(CourseManager manager) {
+        try {
+            FileUtil.replaceAtomically(filename, ch -> {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(ch), BUFFER_SIZE));
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                for (String csv : csvFiles) {
+                    File c = new File(csv);
+                    out.writeLong(fileLength(c));
+                    out.writeLong(c.lastModified());
+                }
+
+                List<Student> students = manager.getAllStudents();
+                HashMap<String, Integer> ordinals = new HashMap<>(students.size() * 2);
+                out.writeInt(students.size());
+                for (Student s : students) {
+                    ordinals.put(s.getId(), ordinals.size());
+                    writeStr(out, s.getId());
+                    writeStr(out, s.getName());
+                    out.writeInt(s.getAge());
+                    writeStr(out, s.getMajor());
+                    out.writeDouble(s.getPerformanceScore());
+                }
+                List<Staff> staff = manager.getAllStaff();
+                out.writeInt(staff.size());
+                for (Staff st : staff) {
+                    writeStr(out, st.getId());
+                    writeStr(out, st.getName());
+                    out.writeInt(st.getAge());
+                    writeStr(out, st.getDepartment());
+                }
+                List<Course> courses = manager.getAllCourses();
+                out.writeInt(courses.size());
+                for (Course c : courses) {
+                    writeStr(out, c.getCourseId());
+                    writeStr(out, c.getCourseName());
+                    out.writeInt(c.getCapacity());
+                    writeStr(out, c.getInstructorId());
+                    out.writeInt(c.getEnrolledCount());
+                    for (String sid : c.getEnrolledStudentIds()) {
+                        Integer ordinal = ordinals.get(sid); // exact spelling only, otherwise keep the string
+                        out.writeInt(ordinal == null ? -1 : ordinal);
+                        if (ordinal == null) writeStr(out, sid);
+                    }
+                }
+                out.flush();
+            });
+            return true;
+        } catch (IOException e) {
+            System.out.println("Error writing snapshot " + filename + ": " + e.getMessage());
+            return false;
+        }
+    }
+
+    /** True if the snapshot exists and matches the CSV files on disk. */
+    boolean isFresh() {
+        File f = new File(filename);
+        if (!f.exists()) return false;
+        try (DataInputStream in = new DataInputStream(new FileInputStream(f))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) return false;
+            for (String csv : csvFiles) {
+                File c = new File(csv);
+                if (in.readLong() != fileLength(c) || in.readLong() != c.lastModified()) return false;
+            }
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // ---------------- helpers ----------------
+    private static long fileLength(File f) {
+        return f.exists() ? f.length() : -1;
+    }
+
+    private static void writeStr(DataOutputStream out, String s) throws IOException {
+        byte[] b = (s == null ? "" : s).getBytes(StandardCharsets.UTF_8);
+        out.writeInt(b.length);
+        out.write(b);
+    }
+
+    private static String readStr(DataInputStream in, byte[] buf) throws IOException {
+        int len = in.readInt();
+        if (len < 0) throw new IOException("corrupt string length " + len);
+        byte[] b = len <= buf.length ? buf : new byte[len];
+        in.readFully(b, 0, len);
+        return new String(b, 0, len, StandardCharsets.UTF_8);
+    }
+}
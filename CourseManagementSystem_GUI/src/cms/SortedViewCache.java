@@ -0,0 +1,64 @@
+package cms;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-only sorted lists, one per sort key, reused until the data they were built
+ * from changes. CourseManager passes a version number that it bumps on every change
+ * affecting the order, so showing the same view again costs nothing.
+ */
+final class SortedViewCache<K extends Enum<K>, T> {
+    private final EnumMap<K, List<T>> views;
+    private final EnumMap<K, Long> builtAt;
+
+    SortedViewCache(Class<K> keys) {
+        views = new EnumMap<>(keys);
+        builtAt = new EnumMap<>(keys);
+    }
+
+    /**
+     * The cached view for {@code key}, or a new one from {@code build} if the data has
+     * changed since. {@code version} must be read before the data is, so a change made
+     * while building leaves the view stale and it is rebuilt next time.
+     */
+    List<T> get(K key, long version, Supplier<List<T>> build) {
+        synchronized (this) {
+            Long v = builtAt.get(key);
+            if (v != null && v == version) return views.get(key);
+        }
+        List<T> view = Collections.unmodifiableList(build.get()); // built outside the lock
+        synchronized (this) {
+            Long v = builtAt.get(key);
+            if (v == null || v < version) {
+                views.put(key, view);
+                builtAt.put(key, version);
+            }
+        }
+        return view;
+    }
+
+    /**
+     * Stable sort of {@code items} by a key read once per item up front, so values
+     * changed by other threads while sorting cannot break the comparator.
+     */
+    static <T, U> List<T> sorted(List<T> items, Function<? super T, ? extends U> key, Comparator<? super U> order) {
+        int n = items.size();
+        List<U> keys = new ArrayList<>(n);
+        Integer[] idx = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            keys.add(key.apply(items.get(i)));
+            idx[i] = i;
+        }
+        Arrays.sort(idx, (a, b) -> order.compare(keys.get(a), keys.get(b)));
+        List<T> res = new ArrayList<>(n);
+        for (int i : idx) res.add(items.get(i));
+        return res;
+    }
+}
@@ -6,6 +6,7 @@ package cms;
  */
 public class Staff extends Person {
     private String department;
+    private int ordinal = -1; // ID code in the CourseManager it was added to (dense surrogate key)
 
     public Staff(String id, String name, int age, String department) {
         super(id, name, age);
@@ -18,6 +19,9 @@ public class Staff extends Person {
     public String getDepartment() { return department; }
     public void setDepartment(String dept) { this.department = dept; }
 
+    int ordinal() { return ordinal; }
+    void setOrdinal(int ordinal) { this.ordinal = ordinal; }
+
     // CSV: id,name,age,Staff,department,0
     public String toCSV() {
         return id + "," + escapeComma(name) + "," + age + "," + getType() + "," + escapeComma(department) + ",0";
@@ -0,0 +1,10 @@
+package cms;
+
+/**
+ * Orders available for staff lists (see CourseManager.getStaffSorted).
+ */
+public enum StaffSort {
+    ID,
+    NAME,
+    DEPARTMENT
+}
@@ -0,0 +1,70 @@
+package cms;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dense int codes for strings that repeat across many objects: entity IDs (used as
+ * surrogate keys, e.g. in course rosters), majors and departments. Each CourseManager
+ * has its own dictionaries, so codes are only meaningful within one manager.
+ *
+ * Codes are handed out 0, 1, 2, ... the first time a string is seen and never change or
+ * get reused, so they can index arrays. ID dictionaries compare like Ids.key (trimmed,
+ * case-insensitive); decode() returns the spelling of the entity that owns the ID (see
+ * respell) or, for an ID nobody owns, the first spelling seen. The others compare exactly.
+ * Lookups need no lock; only adding or respelling a string is synchronized.
+ */
+final class StringDictionary {
+    private final boolean ids;
+    private final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+    private volatile String[] values = new String[16];
+    private int size; // guarded by this
+
+    StringDictionary(boolean ids) {
+        this.ids = ids;
+    }
+
+    /** Code for {@code s}, assigning a new one the first time; -1 for null. */
+    int encode(String s) {
+        if (s == null) return -1;
+        String key = ids ? Ids.key(s) : s;
+        Integer code = codes.get(key);
+        return code != null ? code : add(key, ids ? s.trim() : s);
+    }
+
+    /** Code for {@code s}, or -1 if it was never encoded. */
+    int find(String s) {
+        if (s == null) return -1;
+        Integer code = codes.get(ids ? Ids.key(s) : s);
+        return code == null ? -1 : code;
+    }
+
+    /** The string for {@code code}; null for -1. */
+    String decode(int code) {
+        return code < 0 ? null : values[code];
+    }
+
+    /** The shared instance equal to {@code s}, so repeated values are stored once; null for null. */
+    String canonical(String s) {
+        return decode(encode(s));
+    }
+
+    /** Makes decode(code) return {@code spelling}, e.g. the ID exactly as its student has it. */
+    synchronized void respell(int code, String spelling) {
+        String[] v = values;
+        v[code] = spelling;
+        values = v; // volatile write publishes the element to lock-free decode() calls
+    }
+
+    /** Number of codes handed out so far (every code is below this). */
+    synchronized int size() { return size; }
+
+    private synchronized int add(String key, String value) {
+        Integer code = codes.get(key);
+        if (code != null) return code;
+        if (size == values.length) values = Arrays.copyOf(values, size * 2);
+        values[size] = value;
+        codes.put(key, size); // published after the value, so decode() sees it
+        return size++;
+    }
+}
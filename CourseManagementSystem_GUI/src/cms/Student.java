@@ -6,7 +6,9 @@ package cms;
  */
 public class Student extends Person {
     private String major;
-    private double performanceScore;
+    private int ordinal = -1; // ID code in the CourseManager it was added to (dense surrogate key)
+    private volatile double performanceScore;
+    private volatile boolean removed; // set by CourseManager.deleteStudent, so queued evaluations can tell
 
     public Student(String id, String name, int age, String major, double performanceScore) {
         super(id, name, age);
@@ -23,6 +25,12 @@ public class Student extends Person {
     public double getPerformanceScore() { return performanceScore; }
     public void setPerformanceScore(double performanceScore) { this.performanceScore = Math.max(0.0, performanceScore); }
 
+    int ordinal() { return ordinal; }
+    void setOrdinal(int ordinal) { this.ordinal = ordinal; }
+
+    boolean isRemoved() { return removed; }
+    void setRemoved(boolean removed) { this.removed = removed; }
+
     // CSV: id,name,age,Student,major,score
     public String toCSV() {
         return id + "," + escapeComma(name) + "," + age + "," + getType() + "," + escapeComma(major) + "," + performanceScore;
@@ -0,0 +1,273 @@
+package cms;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Set of student ID codes (see StringDictionary), compressed like a roaring bitmap.
+ *
+ * Codes are grouped by their high 16 bits into chunks. A chunk with at most 4096
+ * members stores their low 16 bits as a sorted char array (2 bytes per student);
+ * a fuller chunk is a 65536-bit bitmap (8 KB). Intersections, unions and differences
+ * merge chunk by chunk and work on whole 64-bit words where both sides are bitmaps.
+ *
+ * Instances are never modified after they are built, so they can be cached and shared.
+ */
+final class StudentBitmap {
+    static final StudentBitmap EMPTY = new StudentBitmap(new char[0], new Object[0], new int[0], 0);
+
+    private static final int ARRAY_MAX = 4096;
+    private static final int WORDS = 1 << 10; // 65536 bits
+
+    private final char[] keys;      // high 16 bits of each chunk, ascending
+    private final Object[] chunks;  // char[] (sorted low bits, exact length) or long[WORDS]
+    private final int[] cards;      // members per chunk
+    private final int size;         // chunks in use
+
+    private StudentBitmap(char[] keys, Object[] chunks, int[] cards, int size) {
+        this.keys = keys;
+        this.chunks = chunks;
+        this.cards = cards;
+        this.size = size;
+    }
+
+    /** Bitmap of the given codes (any order, duplicates and negative codes ignored). */
+    static StudentBitmap of(int[] codes) {
+        int[] sorted = codes.clone();
+        Arrays.sort(sorted);
+        Builder b = new Builder();
+        int i = 0;
+        while (i < sorted.length && sorted[i] < 0) i++;
+        while (i < sorted.length) {
+            int high = sorted[i] >>> 16;
+            char[] low = new char[Math.min(sorted.length - i, 1 << 16)];
+            int n = 0;
+            for (; i < sorted.length && sorted[i] >>> 16 == high; i++) {
+                char c = (char) sorted[i];
+                if (n == 0 || low[n - 1] != c) low[n++] = c;
+            }
+            b.add((char) high, n > ARRAY_MAX ? toWords(low, n) : Arrays.copyOf(low, n));
+        }
+        return b.build();
+    }
+
+    /** Union of any number of bitmaps. */
+    static StudentBitmap union(Iterable<StudentBitmap> bitmaps) {
+        TreeMap<Character, long[]> words = new TreeMap<>();
+        for (StudentBitmap bm : bitmaps) {
+            for (int i = 0; i < bm.size; i++) {
+                long[] w = words.computeIfAbsent(bm.keys[i], k -> new long[WORDS]);
+                Object c = bm.chunks[i];
+                if (c instanceof long[]) {
+                    long[] x = (long[]) c;
+                    for (int k = 0; k < WORDS; k++) w[k] |= x[k];
+                } else {
+                    for (char v : (char[]) c) w[v >>> 6] |= 1L << v;
+                }
+            }
+        }
+        Builder b = new Builder();
+        for (Map.Entry<Character, long[]> e : words.entrySet()) b.add(e.getKey(), e.getValue());
+        return b.build();
+    }
+
+    int cardinality() {
+        int n = 0;
+        for (int i = 0; i < size; i++) n += cards[i];
+        return n;
+    }
+
+    boolean isEmpty() { return size == 0; }
+
+    boolean contains(int code) {
+        if (code < 0) return false;
+        int i = Arrays.binarySearch(keys, 0, size, (char) (code >>> 16));
+        if (i < 0) return false;
+        char low = (char) code;
+        Object c = chunks[i];
+        if (c instanceof long[]) return (((long[]) c)[low >>> 6] & (1L << low)) != 0;
+        return Arrays.binarySearch((char[]) c, low) >= 0;
+    }
+
+    StudentBitmap and(StudentBitmap o) {
+        Builder b = new Builder();
+        for (int i = 0, j = 0; i < size && j < o.size; ) {
+            if (keys[i] < o.keys[j]) i++;
+            else if (keys[i] > o.keys[j]) j++;
+            else b.add(keys[i], and(chunks[i++], o.chunks[j++]));
+        }
+        return b.build();
+    }
+
+    /** Same as and(o).cardinality(), without building the result. */
+    int andCardinality(StudentBitmap o) {
+        int n = 0;
+        for (int i = 0, j = 0; i < size && j < o.size; ) {
+            if (keys[i] < o.keys[j]) i++;
+            else if (keys[i] > o.keys[j]) j++;
+            else n += andCardinality(chunks[i++], o.chunks[j++]);
+        }
+        return n;
+    }
+
+    StudentBitmap or(StudentBitmap o) { return union(Arrays.asList(this, o)); }
+
+    /** Members of this bitmap that are not in {@code o}. */
+    StudentBitmap andNot(StudentBitmap o) {
+        Builder b = new Builder();
+        int j = 0;
+        for (int i = 0; i < size; i++) {
+            while (j < o.size && o.keys[j] < keys[i]) j++;
+            b.add(keys[i], j < o.size && o.keys[j] == keys[i] ? andNot(chunks[i], o.chunks[j]) : chunks[i]);
+        }
+        return b.build();
+    }
+
+    /** The codes in ascending order. */
+    int[] toArray() {
+        int[] res = new int[cardinality()];
+        int n = 0;
+        for (int i = 0; i < size; i++) {
+            int high = keys[i] << 16;
+            Object c = chunks[i];
+            if (c instanceof long[]) {
+                long[] w = (long[]) c;
+                for (int k = 0; k < WORDS; k++) {
+                    for (long bits = w[k]; bits != 0; bits &= bits - 1) {
+                        res[n++] = high | (k << 6) | Long.numberOfTrailingZeros(bits);
+                    }
+                }
+            } else {
+                for (char v : (char[]) c) res[n++] = high | v;
+            }
+        }
+        return res;
+    }
+
+    // ---------------- chunk operations ----------------
+    private static Object and(Object x, Object y) {
+        if (x instanceof long[] && y instanceof long[]) {
+            long[] a = (long[]) x, b = (long[]) y, r = new long[WORDS];
+            for (int k = 0; k < WORDS; k++) r[k] = a[k] & b[k];
+            return r;
+        }
+        if (x instanceof long[]) return and(y, x);
+        char[] a = (char[]) x;
+        char[] r = new char[a.length];
+        int n = 0;
+        if (y instanceof long[]) {
+            long[] w = (long[]) y;
+            for (char v : a) if ((w[v >>> 6] & (1L << v)) != 0) r[n++] = v;
+        } else {
+            char[] b = (char[]) y;
+            for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+                if (a[i] < b[j]) i++;
+                else if (a[i] > b[j]) j++;
+                else { r[n++] = a[i++]; j++; }
+            }
+        }
+        return Arrays.copyOf(r, n);
+    }
+
+    private static int andCardinality(Object x, Object y) {
+        if (x instanceof long[] && y instanceof long[]) {
+            long[] a = (long[]) x, b = (long[]) y;
+            int n = 0;
+            for (int k = 0; k < WORDS; k++) n += Long.bitCount(a[k] & b[k]);
+            return n;
+        }
+        if (x instanceof long[]) return andCardinality(y, x);
+        char[] a = (char[]) x;
+        int n = 0;
+        if (y instanceof long[]) {
+            long[] w = (long[]) y;
+            for (char v : a) if ((w[v >>> 6] & (1L << v)) != 0) n++;
+        } else {
+            char[] b = (char[]) y;
+            for (int i = 0, j = 0; i < a.length && j < b.length; ) {
+                if (a[i] < b[j]) i++;
+                else if (a[i] > b[j]) j++;
+                else { n++; i++; j++; }
+            }
+        }
+        return n;
+    }
+
+    private static Object andNot(Object x, Object y) {
+        if (x instanceof long[]) {
+            long[] r = ((long[]) x).clone();
+            if (y instanceof long[]) {
+                long[] b = (long[]) y;
+                for (int k = 0; k < WORDS; k++) r[k] &= ~b[k];
+            } else {
+                for (char v : (char[]) y) r[v >>> 6] &= ~(1L << v);
+            }
+            return r;
+        }
+        char[] a = (char[]) x;
+        char[] r = new char[a.length];
+        int n = 0;
+        if (y instanceof long[]) {
+            long[] w = (long[]) y;
+            for (char v : a) if ((w[v >>> 6] & (1L << v)) == 0) r[n++] = v;
+        } else {
+            char[] b = (char[]) y;
+            int j = 0;
+            for (char v : a) {
+                while (j < b.length && b[j] < v) j++;
+                if (j == b.length || b[j] != v) r[n++] = v;
+            }
+        }
+        return Arrays.copyOf(r, n);
+    }
+
+    private static long[] toWords(char[] low, int n) {
+        long[] w = new long[WORDS];
+        for (int i = 0; i < n; i++) w[low[i] >>> 6] |= 1L << low[i];
+        return w;
+    }
+
+    // Collects chunks in key order; drops empty ones and stores small ones as arrays
+    private static final class Builder {
+        private char[] keys = new char[4];
+        private Object[] chunks = new Object[4];
+        private int[] cards = new int[4];
+        private int size;
+
+        void add(char key, Object chunk) {
+            int card;
+            if (chunk instanceof long[]) {
+                long[] w = (long[]) chunk;
+                card = 0;
+                for (long bits : w) card += Long.bitCount(bits);
+                if (card <= ARRAY_MAX) {
+                    char[] low = new char[card];
+                    int n = 0;
+                    for (int k = 0; k < WORDS; k++) {
+                        for (long bits = w[k]; bits != 0; bits &= bits - 1) {
+                            low[n++] = (char) ((k << 6) | Long.numberOfTrailingZeros(bits));
+                        }
+                    }
+                    chunk = low;
+                }
+            } else {
+                card = ((char[]) chunk).length;
+            }
+            if (card == 0) return;
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                chunks = Arrays.copyOf(chunks, size * 2);
+                cards = Arrays.copyOf(cards, size * 2);
+            }
+            keys[size] = key;
+            chunks[size] = chunk;
+            cards[size] = card;
+            size++;
+        }
+
+        StudentBitmap build() {
+            return size == 0 ? EMPTY : new StudentBitmap(keys, chunks, cards, size);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package cms;
+
+import java.util.Arrays;
+
+/**
+ * Column copy of the students' numeric fields for analytics: one primitive array per
+ * field (score, age, major code), indexed by student ID code (see StringDictionary),
+ * plus a bitmap of the codes that belong to current students.
+ *
+ * Aggregates scan the arrays front to back 64 students (one bitmap word) at a time
+ * instead of visiting Student objects. CourseManager keeps the columns in step: put
+ * and remove run under its write lock (they may grow the arrays), score changes under
+ * the read lock plus the student's stripe, and scans under the read lock.
+ */
+final class StudentColumns {
+    private double[] scores = new double[1024];
+    private int[] ages = new int[1024];
+    private int[] majors = new int[1024];
+    private long[] live = new long[1024 / 64];
+    private int count;
+
+    void put(int ordinal, double score, int age, int majorCode) {
+        if (ordinal >= scores.length) grow(ordinal + 1);
+        scores[ordinal] = score;
+        ages[ordinal] = age;
+        majors[ordinal] = majorCode;
+        long bit = 1L << ordinal;
+        if ((live[ordinal >>> 6] & bit) == 0) {
+            live[ordinal >>> 6] |= bit;
+            count++;
+        }
+    }
+
+    void remove(int ordinal) {
+        if (ordinal >= scores.length) return;
+        long bit = 1L << ordinal;
+        if ((live[ordinal >>> 6] & bit) != 0) {
+            live[ordinal >>> 6] &= ~bit;
+            count--;
+        }
+    }
+
+    void setScore(int ordinal, double score) { scores[ordinal] = score; }
+
+    int count() { return count; }
+
+    double sumScores() {
+        double[] scores = this.scores;
+        long[] live = this.live;
+        double sum = 0;
+        for (int w = 0; w < live.length; w++) {
+            long bits = live[w];
+            if (bits == 0) continue;
+            int base = w << 6;
+            if (bits == -1L) {
+                for (int i = base; i < base + 64; i++) sum += scores[i];
+            } else {
+                for (; bits != 0; bits &= bits - 1) sum += scores[base + Long.numberOfTrailingZeros(bits)];
+            }
+        }
+        return sum;
+    }
+
+    /** Adds each student's score to {@code sums[major]} and counts it in {@code counts[major]}. */
+    void sumScoresByMajor(double[] sums, int[] counts) {
+        double[] scores = this.scores;
+        int[] majors = this.majors;
+        long[] live = this.live;
+        for (int w = 0; w < live.length; w++) {
+            long bits = live[w];
+            if (bits == 0) continue;
+            int base = w << 6;
+            if (bits == -1L) {
+                for (int i = base; i < base + 64; i++) {
+                    sums[majors[i]] += scores[i];
+                    counts[majors[i]]++;
+                }
+            } else {
+                for (; bits != 0; bits &= bits - 1) {
+                    int i = base + Long.numberOfTrailingZeros(bits);
+                    sums[majors[i]] += scores[i];
+                    counts[majors[i]]++;
+                }
+            }
+        }
+    }
+
+    /** Number of students per age bucket: index a counts ages a * bucketWidth up to (a + 1) * bucketWidth - 1. */
+    int[] ageHistogram(int bucketWidth) {
+        int[] ages = this.ages;
+        long[] live = this.live;
+        int max = -1;
+        for (int w = 0; w < live.length; w++) {
+            long bits = live[w];
+            if (bits == 0) continue;
+            int base = w << 6;
+            if (bits == -1L) {
+                for (int i = base; i < base + 64; i++) max = Math.max(max, ages[i]);
+            } else {
+                for (; bits != 0; bits &= bits - 1) max = Math.max(max, ages[base + Long.numberOfTrailingZeros(bits)]);
+            }
+        }
+        if (max < 0) return new int[0];
+        int[] counts = new int[max / bucketWidth + 1];
+        for (int w = 0; w < live.length; w++) {
+            long bits = live[w];
+            if (bits == 0) continue;
+            int base = w << 6;
+            if (bits == -1L) {
+                for (int i = base; i < base + 64; i++) counts[ages[i] / bucketWidth]++;
+            } else {
+                for (; bits != 0; bits &= bits - 1) counts[ages[base + Long.numberOfTrailingZeros(bits)] / bucketWidth]++;
+            }
+        }
+        return counts;
+    }
+
+    // ---------------- helpers ----------------
+    private void grow(int needed) {
+        int size = scores.length;
+        while (size < needed) size *= 2; // stays a multiple of 64, so every bitmap word has 64 slots
+        scores = Arrays.copyOf(scores, size);
+        ages = Arrays.copyOf(ages, size);
+        majors = Arrays.copyOf(majors, size);
+        live = Arrays.copyOf(live, size / 64);
+    }
+}
@@ -0,0 +1,103 @@
+package cms;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Secondary index on student names (used by CourseManager for name searches).
+ *
+ * Full names and every word of a name are kept in sorted maps, so exact,
+ * prefix and word lookups are O(log n + matches) instead of a full scan.
+ * Each key holds its students in insertion order: a small list while few students
+ * share it, a LinkedHashSet once many do (common names and words), so removing a
+ * student on rename or delete stays O(1) either way.
+ */
+class StudentNameIndex {
+    private static final int SMALL = 8; // students per key kept in a list (Student has identity equals)
+
+    private final TreeMap<String, Collection<Student>> byName = new TreeMap<>();
+    private final TreeMap<String, Collection<Student>> byToken = new TreeMap<>();
+
+    void add(Student s) {
+        String name = fold(s.getName());
+        put(byName, name, s);
+        for (String token : tokens(name)) put(byToken, token, s);
+    }
+
+    // must be called with the name the student was indexed under (i.e. before a rename)
+    void remove(Student s) {
+        String name = fold(s.getName());
+        take(byName, name, s);
+        for (String token : tokens(name)) take(byToken, token, s);
+    }
+
+    List<Student> exact(String name) {
+        Collection<Student> hits = byName.get(fold(name));
+        return hits == null ? new ArrayList<>() : new ArrayList<>(hits);
+    }
+
+    /**
+     * Exact matches first, then names starting with the query,
+     * then names with a word starting with the query ("Rai" finds "Anita Rai").
+     */
+    List<Student> search(String query, int limit) {
+        String q = fold(query);
+        LinkedHashSet<Student> res = new LinkedHashSet<>();
+        if (q.isEmpty() || limit <= 0) return new ArrayList<>();
+
+        Collection<Student> exact = byName.get(q);
+        if (exact != null) addUpTo(res, exact, limit);
+        collect(res, prefixRange(byName, q), limit);
+        collect(res, prefixRange(byToken, q), limit);
+        return new ArrayList<>(res);
+    }
+
+    // ---------------- helpers ----------------
+    private static NavigableMap<String, Collection<Student>> prefixRange(TreeMap<String, Collection<Student>> map, String prefix) {
+        return map.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+    }
+
+    private static void collect(LinkedHashSet<Student> res, NavigableMap<String, Collection<Student>> range, int limit) {
+        for (Map.Entry<String, Collection<Student>> e : range.entrySet()) {
+            if (res.size() >= limit) return;
+            addUpTo(res, e.getValue(), limit);
+        }
+    }
+
+    private static void addUpTo(LinkedHashSet<Student> res, Collection<Student> list, int limit) {
+        for (Student s : list) {
+            if (res.size() >= limit) return;
+            res.add(s);
+        }
+    }
+
+    private static void put(TreeMap<String, Collection<Student>> map, String key, Student s) {
+        Collection<Student> students = map.computeIfAbsent(key, k -> new ArrayList<>(1));
+        if (students.size() == SMALL && students instanceof ArrayList) {
+            students = new LinkedHashSet<>(students);
+            map.put(key, students);
+        }
+        students.add(s);
+    }
+
+    private static void take(TreeMap<String, Collection<Student>> map, String key, Student s) {
+        Collection<Student> students = map.get(key);
+        if (students == null) return;
+        students.remove(s); // linear only while the list is small
+        if (students.isEmpty()) map.remove(key);
+    }
+
+    private static String[] tokens(String foldedName) {
+        return foldedName.isEmpty() ? new String[0] : foldedName.split("\\s+");
+    }
+
+    private static String fold(String s) {
+        return s == null ? "" : s.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,10 @@
+package cms;
+
+/**
+ * Orders available for student lists (see CourseManager.getStudentsSorted).
+ */
+public enum StudentSort {
+    ID,     // case-insensitive
+    NAME,   // case-insensitive
+    SCORE   // highest first
+}
@@ -0,0 +1,138 @@
+package cms.gui;
+
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+import java.awt.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Runs slow GUI actions (sorting, saving, processing evaluations) on a worker thread.
+ *
+ * runAndWait() returns only when the work is done, like a normal method call, but keeps
+ * the event loop running meanwhile, so windows still repaint. If the work takes longer
+ * than a moment a small modal dialog shows its progress, with a Cancel button for jobs
+ * that allow it. Subclasses report progress with report() and can hand partial results
+ * to the EDT in chunks through publish()/process().
+ *
+ * Cancel only asks the job to stop: doInBackground checks isStopRequested() between
+ * steps, and runAndWait still waits until it has returned, so no work is left running
+ * behind the caller's back. (SwingWorker.cancel would mark the task done at once.)
+ */
+abstract class BackgroundTask<T, V> extends SwingWorker<T, V> {
+    private static final int DIALOG_DELAY_MS = 300;
+
+    private final Component parent;
+    private final String title;
+    private final boolean cancellable;
+    private final JComponent details;
+    private final JProgressBar bar = new JProgressBar(0, 100);
+    private final JLabel status = new JLabel(" ");
+    private volatile boolean stopRequested;
+    private JDialog dialog;
+
+    BackgroundTask(Component parent, String title, boolean cancellable, JComponent details) {
+        this.parent = parent;
+        this.title = title;
+        this.cancellable = cancellable;
+        this.details = details;
+        bar.setIndeterminate(true);
+        addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) {
+                bar.setIndeterminate(false);
+                bar.setValue(getProgress());
+            }
+        });
+    }
+
+    /** Runs {@code job} in the background and returns its result; null if cancelled or failed. */
+    static <T> T call(Component parent, String title, boolean cancellable, Callable<T> job) {
+        return new BackgroundTask<T, Void>(parent, title, cancellable, null) {
+            @Override
+            protected T doInBackground() throws Exception { return job.call(); }
+        }.runAndWait();
+    }
+
+    /**
+     * Starts the task and waits until doInBackground has returned, without blocking the event loop.
+     * Returns the result, or null if the task was cancelled or failed (failures are reported).
+     */
+    T runAndWait() {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            execute();
+            return result();
+        }
+        SecondaryLoop loop = Toolkit.getDefaultToolkit().getSystemEventQueue().createSecondaryLoop();
+        addPropertyChangeListener(e -> {
+            if ("state".equals(e.getPropertyName()) && e.getNewValue() == StateValue.DONE) {
+                if (dialog != null) dialog.dispose();
+                loop.exit();
+            }
+        });
+        Timer showDialog = new Timer(DIALOG_DELAY_MS, e -> { if (!isDone()) showDialog(); });
+        showDialog.setRepeats(false);
+        showDialog.start();
+        execute();
+        loop.enter();
+        showDialog.stop();
+        return result();
+    }
+
+    /** True once the user pressed Cancel; the job should stop at its next step. */
+    protected boolean isStopRequested() { return stopRequested; }
+
+    /** Called from the worker thread: {@code done} of {@code total} steps finished. */
+    protected void report(long done, long total, String message) {
+        if (total > 0) setProgress((int) Math.min(100, done * 100 / total));
+        SwingUtilities.invokeLater(() -> status.setText(message));
+    }
+
+    private T result() {
+        try {
+            T value = get();
+            return stopRequested ? null : value;
+        } catch (CancellationException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            JOptionPane.showMessageDialog(parent, title + " failed: " + cause.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return null;
+        }
+    }
+
+    private void showDialog() {
+        Window owner = parent == null ? null : SwingUtilities.getWindowAncestor(parent);
+        dialog = new JDialog(owner, title, Dialog.ModalityType.APPLICATION_MODAL);
+        dialog.setDefaultCloseOperation(WindowConstants.DO_NOTHING_ON_CLOSE);
+
+        JPanel content = new JPanel(new BorderLayout(10, 10));
+        content.setBorder(new EmptyBorder(15, 15, 15, 15));
+        JPanel top = new JPanel(new GridLayout(2, 1, 5, 5));
+        top.add(status);
+        top.add(bar);
+        content.add(top, BorderLayout.NORTH);
+        if (details != null) content.add(details, BorderLayout.CENTER);
+
+        if (cancellable) {
+            JButton cancel = new JButton("Cancel");
+            // the job checks isStopRequested() between steps; anything already done is kept
+            cancel.addActionListener(e -> {
+                stopRequested = true;
+                cancel.setEnabled(false);
+                status.setText("Stopping...");
+            });
+            JPanel buttons = new JPanel();
+            buttons.add(cancel);
+            content.add(buttons, BorderLayout.SOUTH);
+        }
+
+        dialog.setContentPane(content);
+        dialog.setSize(details != null ? 600 : 380, details != null ? 420 : 150);
+        dialog.setLocationRelativeTo(parent);
+        if (!isDone()) dialog.setVisible(true); // modal: returns when the task disposes it
+    }
+}
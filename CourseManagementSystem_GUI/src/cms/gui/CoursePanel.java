@@ -2,12 +2,10 @@ package cms.gui;
 
 import cms.Course;
 import cms.CourseManager;
-import cms.Student;
+import cms.CourseSort;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.util.Comparator;
 import java.util.List;
 
 public class CoursePanel {
@@ -81,22 +79,13 @@ public class CoursePanel {
             return;
         }
 
-        // ---- Table ----
-        String[] columns = {
-                "Course ID",
-                "Course Name",
-                "Capacity",
-                "Enrolled Count",
-                "Enrolled Students"
-        };
-
-        DefaultTableModel model = new DefaultTableModel(columns, 0);
+        // ---- Table (cells, including enrolled names, are built only for rows on screen) ----
+        CourseTableModel model = new CourseTableModel(courses, manager);
         JTable table = new JTable(model);
         table.setEnabled(false);
         table.setAutoResizeMode(JTable.AUTO_RESIZE_ALL_COLUMNS);
 
         JScrollPane scrollPane = new JScrollPane(table);
-        loadCoursesIntoTable(model, courses, manager);
 
         // ---- Buttons ----
         JButton btnSortId = new JButton("Sort by ID");
@@ -104,24 +93,12 @@ public class CoursePanel {
         JButton btnSortEnroll = new JButton("Sort by Enrolled Count");
         JButton btnClose = new JButton("Close");
 
-        btnSortId.addActionListener(e -> {
-            courses.sort(Comparator.comparing(Course::getCourseId));
-            loadCoursesIntoTable(model, courses, manager);
-        });
-
-        btnSortName.addActionListener(e -> {
-            courses.sort(Comparator.comparing(Course::getCourseName, String.CASE_INSENSITIVE_ORDER));
-            loadCoursesIntoTable(model, courses, manager);
-        });
-
-        btnSortEnroll.addActionListener(e -> {
-            courses.sort((a, b) ->
-                    Integer.compare(
-                            b.getEnrolledStudentIds().size(),
-                            a.getEnrolledStudentIds().size()
-                    ));
-            loadCoursesIntoTable(model, courses, manager);
-        });
+        btnSortId.addActionListener(e -> model.setRowsInBackground(table, "Sorting courses",
+                () -> manager.getCoursesSorted(CourseSort.ID)));
+        btnSortName.addActionListener(e -> model.setRowsInBackground(table, "Sorting courses",
+                () -> manager.getCoursesSorted(CourseSort.NAME)));
+        btnSortEnroll.addActionListener(e -> model.setRowsInBackground(table, "Sorting courses",
+                () -> manager.getCoursesSorted(CourseSort.ENROLLED)));
 
         btnClose.addActionListener(e -> SwingUtilities.getWindowAncestor(btnClose).dispose());
 
@@ -176,36 +153,4 @@ public class CoursePanel {
                 ok ? "Student removed from course." : "Removal failed. Check IDs."
         );
     }
-
-    // ================= HELPER =================
-    private static void loadCoursesIntoTable(
-            DefaultTableModel model,
-            List<Course> courses,
-            CourseManager manager
-    ) {
-        model.setRowCount(0);
-
-        for (Course c : courses) {
-
-            StringBuilder enrolledNames = new StringBuilder();
-            for (String sid : c.getEnrolledStudentIds()) {
-                Student s = manager.findStudentById(sid);
-                enrolledNames.append(
-                        s != null ? s.getName() : sid
-                ).append(", ");
-            }
-
-            if (!enrolledNames.isEmpty()) {
-                enrolledNames.setLength(enrolledNames.length() - 2);
-            }
-
-            model.addRow(new Object[]{
-                    c.getCourseId(),
-                    c.getCourseName(),
-                    c.getCapacity(),
-                    c.getEnrolledStudentIds().size(),
-                    enrolledNames.toString()
-            });
-        }
-    }
-}
\ No newline at end of file
+}
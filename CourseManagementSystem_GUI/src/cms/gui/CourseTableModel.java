@@ -0,0 +1,30 @@
+package cms.gui;
+
+import cms.Course;
+import cms.CourseManager;
+
+import java.util.List;
+
+@SuppressWarnings("serial")
+class CourseTableModel extends ListTableModel<Course> {
+    private final CourseManager manager;
+
+    CourseTableModel(List<Course> courses, CourseManager manager) {
+        super(new String[]{"Course ID", "Course Name", "Capacity", "Enrolled Count", "Enrolled Students"}, courses);
+        this.manager = manager;
+    }
+
+    @Override
+    Object valueOf(Course c, int col) {
+        switch (col) {
+            case 0: return c.getCourseId();
+            case 1: return c.getCourseName();
+            case 2: return c.getCapacity();
+            case 3: return c.getEnrolledCount();
+            default: return manager.getEnrolledNames(c); // only asked for rows that are on screen
+        }
+    }
+
+    @Override
+    public Class<?> getColumnClass(int col) { return col == 2 || col == 3 ? Integer.class : String.class; }
+}
@@ -1,11 +1,12 @@
 package cms.gui;
 
 import cms.CourseManager;
+import cms.EvaluationCommand;
 import cms.Student;
 
 import javax.swing.*;
+import java.awt.*;
 import java.util.List;
-import java.util.Queue;
 
 public class EvaluationPanel {
 
@@ -17,6 +18,7 @@ public class EvaluationPanel {
                 "• Schedule Evaluation: Queue a reward or penalty to process later\n" +
                 "• Process Next Evaluation: Apply the next queued evaluation (FIFO)\n" +
                 "• Process All Evaluations: Apply all queued evaluations\n" +
+                "• Process All (Summary): Apply all queued evaluations as one net change per student\n" +
                 "• View Evaluation Queue: View pending evaluations\n";
 
         String[] options = {
@@ -24,6 +26,7 @@ public class EvaluationPanel {
                 "Schedule Evaluation",
                 "Process Next",
                 "Process All",
+                "Process All (Summary)",
                 "View Queue",
                 "Back"
         };
@@ -40,14 +43,15 @@ public class EvaluationPanel {
                     options[0]
             );
 
-            if (choice == -1 || choice == 5) break;
+            if (choice == -1 || choice == 6) break;
 
             switch (choice) {
                 case 0 -> immediateEvaluation(manager);
                 case 1 -> scheduleEvaluation(manager);
                 case 2 -> processNext(manager);
                 case 3 -> processAll(manager);
-                case 4 -> viewQueue(manager);
+                case 4 -> processAllCoalesced(manager);
+                case 5 -> viewQueue(manager);
             }
         }
     }
@@ -101,9 +105,9 @@ public class EvaluationPanel {
         }
 
         if (action == 0) {
-            s.setPerformanceScore(s.getPerformanceScore() + amount);
+            manager.adjustScore(s, amount);
         } else {
-            s.setPerformanceScore(Math.max(0, s.getPerformanceScore() - amount));
+            manager.adjustScore(s, -amount);
         }
 
         JOptionPane.showMessageDialog(
@@ -127,18 +131,25 @@ public class EvaluationPanel {
         String cmd = JOptionPane.showInputDialog(message);
         if (cmd == null || cmd.isBlank()) return;
 
-        manager.scheduleEvaluation(cmd);
+        EvaluationCommand command;
+        try {
+            command = EvaluationCommand.parse(cmd, manager);
+        } catch (IllegalArgumentException e) {
+            JOptionPane.showMessageDialog(null, e.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+            return;
+        }
+        manager.scheduleEvaluation(command);
 
         JOptionPane.showMessageDialog(
                 null,
-                "Evaluation successfully scheduled:\n" + cmd
+                "Evaluation successfully scheduled:\n" + command
         );
     }
 
     /* ================= PROCESS NEXT ================= */
     private static void processNext(CourseManager manager) {
 
-        String result = manager.processNextEvaluation();
+        String result = BackgroundTask.call(null, "Processing evaluation", false, manager::processNextEvaluation);
 
         JOptionPane.showMessageDialog(
                 null,
@@ -149,27 +160,69 @@ public class EvaluationPanel {
     }
 
     /* ================= PROCESS ALL ================= */
-    private static void processAll(CourseManager manager) {
+    private static final int PROCESS_CHUNK = 10_000;
 
-        List<String> results = manager.processAllEvaluations();
+    private static void processAll(CourseManager manager) {
 
-        if (results.isEmpty()) {
+        int total = manager.getPendingEvaluationCount();
+        if (total == 0) {
             JOptionPane.showMessageDialog(null, "No scheduled evaluations.");
             return;
         }
 
-        StringBuilder sb = new StringBuilder("Evaluation Results:\n\n");
-        for (String r : results) {
-            sb.append("• ").append(r).append("\n");
-        }
+        // Results are appended as each chunk is processed, so the list grows while the work runs
+        JTextArea output = new JTextArea();
+        output.setEditable(false);
+        JScrollPane scroll = new JScrollPane(output);
+
+        Integer processed = new BackgroundTask<Integer, String>(null, "Processing evaluations", true, scroll) {
+            @Override
+            protected Integer doInBackground() {
+                int done = 0;
+                while (done < total && !isStopRequested()) {
+                    List<String> chunk = manager.processEvaluations(PROCESS_CHUNK);
+                    if (chunk.isEmpty()) break;
+                    done += chunk.size();
+                    publish(chunk.toArray(new String[0]));
+                    report(done, total, "Processed " + done + " of " + total + " evaluations");
+                }
+                return done;
+            }
 
-        JOptionPane.showMessageDialog(null, sb.toString());
+            @Override
+            protected void process(List<String> results) {
+                StringBuilder sb = new StringBuilder();
+                for (String r : results) sb.append("• ").append(r).append("\n");
+                output.append(sb.toString());
+            }
+        }.runAndWait();
+
+        String summary = processed == null
+                ? "Processing stopped. Evaluations not yet processed are still queued."
+                : "Processed " + processed + " evaluations.";
+        scroll.setPreferredSize(new Dimension(600, 350));
+        JOptionPane.showMessageDialog(null, new Object[]{summary, scroll}, "Evaluation Results", JOptionPane.INFORMATION_MESSAGE);
+    }
+
+    /* ================= PROCESS ALL (SUMMARY) ================= */
+    private static void processAllCoalesced(CourseManager manager) {
+
+        String result = BackgroundTask.call(null, "Processing evaluations", false,
+                manager::processAllEvaluationsCoalesced);
+
+        // null: the processing failed and BackgroundTask has shown the error
+        JOptionPane.showMessageDialog(
+                null,
+                result == null
+                        ? "Evaluations were not processed. Any still pending remain in the queue."
+                        : result
+        );
     }
 
     /* ================= VIEW QUEUE ================= */
     private static void viewQueue(CourseManager manager) {
 
-        Queue<String> queue = manager.getEvaluationQueue();
+        List<String> queue = manager.getEvaluationQueue();
 
         if (queue.isEmpty()) {
             JOptionPane.showMessageDialog(null, "Evaluation queue is empty.");
@@ -0,0 +1,54 @@
+package cms.gui;
+
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+/**
+ * Table model that shows a list of entities without copying them into rows.
+ * Cells are read from the entity when JTable paints them, so only visible rows
+ * are touched, and re-sorting just swaps the list (e.g. a cached sorted view).
+ */
+@SuppressWarnings("serial") // table models are never serialized
+abstract class ListTableModel<T> extends AbstractTableModel {
+    private final String[] columns;
+    private List<T> rows;
+
+    ListTableModel(String[] columns, List<T> rows) {
+        this.columns = columns;
+        this.rows = rows;
+    }
+
+    /** Shows another list (e.g. the same data in a different order). */
+    void setRows(List<T> rows) {
+        this.rows = rows;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Builds the new list on a worker thread (e.g. a sort) and then shows it.
+     * The current rows stay if the user cancels.
+     */
+    void setRowsInBackground(Component parent, String title, Callable<List<T>> newRows) {
+        List<T> list = BackgroundTask.call(parent, title, true, newRows);
+        if (list != null) setRows(list);
+    }
+
+    T getRow(int row) { return rows.get(row); }
+
+    /** Value of column {@code col} for one entity. */
+    abstract Object valueOf(T item, int col);
+
+    @Override
+    public int getRowCount() { return rows.size(); }
+
+    @Override
+    public int getColumnCount() { return columns.length; }
+
+    @Override
+    public String getColumnName(int col) { return columns[col]; }
+
+    @Override
+    public Object getValueAt(int row, int col) { return valueOf(rows.get(row), col); }
+}
@@ -1,22 +1,45 @@
 package cms.gui;
 
 import cms.CourseManager;
-import cms.FileUtil;
+import cms.DataSet;
+import cms.DataStore;
 
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import java.awt.*;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 public class MainGUI extends JFrame {
 
     private final CourseManager manager = new CourseManager();
+    private final DataStore store = new DataStore(manager, "students.csv", "staff.csv", "courses.csv",
+            "changes.log", "cms.snapshot", "evaluations.queue");
+
+    // Buttons stay disabled until the data they need has been loaded (edits made while
+    // the rest is loading are kept: DataStore holds their change log records until then)
+    private final JButton studentBtn = new JButton("Manage Students");
+    private final JButton staffBtn = new JButton("Manage Staff");
+    private final JButton courseBtn = new JButton("Courses & Enrollments");
+    private final JButton evalBtn = new JButton("Evaluations");
+    private final JButton saveExitBtn = new JButton("Save & Exit");
+
+    private final JProgressBar loadProgress = new JProgressBar(0, DataSet.values().length);
+    private final JLabel loadStatus = new JLabel("Loading data...");
+    private final EnumSet<DataSet> ready = EnumSet.noneOf(DataSet.class);
+
+    // Compacts changes.log into the CSVs from time to time, like Main does after each action
+    private static final int COMMIT_INTERVAL_SECONDS = 30;
+    private final ScheduledExecutorService committer = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "cms-commit");
+        t.setDaemon(true);
+        return t;
+    });
 
     public MainGUI() {
-        // Load Assignment 3 data
-        FileUtil.loadStudents("students.csv", manager);
-        FileUtil.loadStaff("staff.csv", manager);
-        FileUtil.loadCourses("courses.csv", manager);
-
         setTitle("Student & Course Management System (SCMS)");
         setSize(800, 500);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
@@ -28,6 +51,36 @@ public class MainGUI extends JFrame {
         add(createFooter(), BorderLayout.SOUTH);
 
         setVisible(true);
+
+        // Load Assignment 3 data in the background; the window is usable as data arrives.
+        // Only the readiness callbacks run on the EDT, so it keeps painting while rows are added
+        store.loadAsync(SwingUtilities::invokeLater, this::dataSetLoaded)
+                .whenComplete((warnings, error) -> SwingUtilities.invokeLater(() -> loadingFinished(warnings, error)));
+    }
+
+    /* ================= LOADING ================= */
+    private void dataSetLoaded(DataSet set) {
+        ready.add(set);
+        loadProgress.setValue(ready.size());
+        loadStatus.setText("Loading data... (" + ready.size() + " of " + DataSet.values().length + " ready)");
+        studentBtn.setEnabled(ready.contains(DataSet.STUDENTS));
+        staffBtn.setEnabled(ready.contains(DataSet.STAFF));
+        evalBtn.setEnabled(ready.contains(DataSet.STUDENTS));
+        // the course table shows student names, so it needs both data sets
+        courseBtn.setEnabled(ready.contains(DataSet.COURSES) && ready.contains(DataSet.STUDENTS));
+    }
+
+    private void loadingFinished(List<String> warnings, Throwable error) {
+        loadProgress.setVisible(false);
+        if (error != null) {
+            loadStatus.setText("Loading failed: " + error.getMessage());
+            return;
+        }
+        // saving before everything is loaded would overwrite the files with partial data
+        saveExitBtn.setEnabled(true);
+        committer.scheduleWithFixedDelay(this::commitQuietly, COMMIT_INTERVAL_SECONDS, COMMIT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+        warnings.forEach(w -> System.out.println("Warning: " + w));
+        loadStatus.setText(warnings.isEmpty() ? "Data loaded." : "Data loaded (" + warnings.size() + " roster warnings, see console).");
     }
 
     /* ================= HEADER ================= */
@@ -72,20 +125,13 @@ public class MainGUI extends JFrame {
         JPanel buttonPanel = new JPanel(new GridLayout(3, 2, 15, 15));
         buttonPanel.setBackground(Color.WHITE);
     
-        JButton studentBtn = new JButton("Manage Students");
         studentBtn.addActionListener(e -> StudentPanel.showStudentMenu(manager));
-    
-        JButton staffBtn = new JButton("Manage Staff");
         staffBtn.addActionListener(e -> StaffPanel.showStaffMenu(manager));
-    
-        JButton courseBtn = new JButton("Courses & Enrollments");
         courseBtn.addActionListener(e -> CoursePanel.showCourseMenu(manager));
-    
-        JButton evalBtn = new JButton("Evaluations");
         evalBtn.addActionListener(e -> EvaluationPanel.showEvaluationMenu(manager));
-    
-        JButton saveExitBtn = new JButton("Save & Exit");
         saveExitBtn.addActionListener(e -> saveAndExit());
+
+        for (JButton b : new JButton[]{studentBtn, staffBtn, courseBtn, evalBtn, saveExitBtn}) b.setEnabled(false);
     
         // Empty filler to balance grid
         buttonPanel.add(studentBtn);
@@ -103,11 +149,28 @@ public class MainGUI extends JFrame {
     }
     
 
+    // Runs on the commit thread; saveAll takes the manager's write lock, so edits just wait briefly
+    private void commitQuietly() {
+        try {
+            store.commit();
+        } catch (RuntimeException e) {
+            System.out.println("Error compacting the change log: " + e.getMessage());
+        }
+    }
+
     private void saveAndExit() {
-        FileUtil.saveStudents("students.csv", manager.getAllStudents());
-        FileUtil.saveStaff("staff.csv", manager.getAllStaff());
-        FileUtil.saveCourses("courses.csv", manager.getAllCourses());
-    
+        // only the data sets that changed are rewritten; runs off the EDT so the window keeps painting
+        Boolean saved = BackgroundTask.call(this, "Saving data", false, store::saveAll);
+        if (!Boolean.TRUE.equals(saved)) {
+            JOptionPane.showMessageDialog(
+                    this,
+                    "Some files could not be saved. Your changes are kept in changes.log.",
+                    "Save Error",
+                    JOptionPane.ERROR_MESSAGE
+            );
+            return;
+        }
+
         JOptionPane.showMessageDialog(
                 this,
                 "All data saved successfully.",
@@ -125,6 +188,14 @@ public class MainGUI extends JFrame {
         footer.setBorder(new EmptyBorder(10, 20, 10, 20));
 
         footer.add(new JLabel("ICT711 Programming & Algorithms"), BorderLayout.WEST);
+
+        JPanel loading = new JPanel(new FlowLayout(FlowLayout.CENTER, 10, 0));
+        loading.setOpaque(false);
+        loadProgress.setStringPainted(true);
+        loading.add(loadProgress);
+        loading.add(loadStatus);
+        footer.add(loading, BorderLayout.CENTER);
+
         footer.add(new JLabel("© KOI – Assignment 4"), BorderLayout.EAST);
 
         return footer;
@@ -2,11 +2,10 @@ package cms.gui;
 
 import cms.CourseManager;
 import cms.Staff;
+import cms.StaffSort;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.util.Comparator;
 import java.util.List;
 
 public class StaffPanel {
@@ -77,14 +76,12 @@ public class StaffPanel {
             return;
         }
 
-        // ---- Table ----
-        String[] columns = {"ID", "Name", "Age", "Department"};
-        DefaultTableModel model = new DefaultTableModel(columns, 0);
+        // ---- Table (cells are read from the staff list as they are shown) ----
+        StaffTableModel model = new StaffTableModel(staffList);
         JTable table = new JTable(model);
         table.setEnabled(false);
 
         JScrollPane scrollPane = new JScrollPane(table);
-        loadStaffIntoTable(model, staffList);
 
         // ---- Buttons ----
         JButton btnSortId = new JButton("Sort by ID");
@@ -92,20 +89,12 @@ public class StaffPanel {
         JButton btnSortDept = new JButton("Sort by Department");
         JButton btnClose = new JButton("Close");
 
-        btnSortId.addActionListener(e -> {
-            staffList.sort(Comparator.comparing(Staff::getId));
-            loadStaffIntoTable(model, staffList);
-        });
-
-        btnSortName.addActionListener(e -> {
-            staffList.sort(Comparator.comparing(Staff::getName, String.CASE_INSENSITIVE_ORDER));
-            loadStaffIntoTable(model, staffList);
-        });
-
-        btnSortDept.addActionListener(e -> {
-            staffList.sort(Comparator.comparing(Staff::getDepartment, String.CASE_INSENSITIVE_ORDER));
-            loadStaffIntoTable(model, staffList);
-        });
+        btnSortId.addActionListener(e -> model.setRowsInBackground(table, "Sorting staff",
+                () -> manager.getStaffSorted(StaffSort.ID)));
+        btnSortName.addActionListener(e -> model.setRowsInBackground(table, "Sorting staff",
+                () -> manager.getStaffSorted(StaffSort.NAME)));
+        btnSortDept.addActionListener(e -> model.setRowsInBackground(table, "Sorting staff",
+                () -> manager.getStaffSorted(StaffSort.DEPARTMENT)));
 
         btnClose.addActionListener(e -> SwingUtilities.getWindowAncestor(btnClose).dispose());
 
@@ -128,17 +117,4 @@ public class StaffPanel {
         dialog.setModal(true);
         dialog.setVisible(true);
     }
-
-    // ================= HELPER =================
-    private static void loadStaffIntoTable(DefaultTableModel model, List<Staff> staffList) {
-        model.setRowCount(0);
-        for (Staff st : staffList) {
-            model.addRow(new Object[]{
-                    st.getId(),
-                    st.getName(),
-                    st.getAge(),
-                    st.getDepartment()
-            });
-        }
-    }
 }
\ No newline at end of file
@@ -0,0 +1,26 @@
+package cms.gui;
+
+import cms.Staff;
+
+import java.util.List;
+
+@SuppressWarnings("serial")
+class StaffTableModel extends ListTableModel<Staff> {
+
+    StaffTableModel(List<Staff> staff) {
+        super(new String[]{"ID", "Name", "Age", "Department"}, staff);
+    }
+
+    @Override
+    Object valueOf(Staff st, int col) {
+        switch (col) {
+            case 0: return st.getId();
+            case 1: return st.getName();
+            case 2: return st.getAge();
+            default: return st.getDepartment();
+        }
+    }
+
+    @Override
+    public Class<?> getColumnClass(int col) { return col == 2 ? Integer.class : String.class; }
+}
@@ -2,15 +2,16 @@ package cms.gui;
 
 import cms.CourseManager;
 import cms.Student;
+import cms.StudentSort;
 
 import javax.swing.*;
-import javax.swing.table.DefaultTableModel;
 import java.awt.*;
-import java.util.Comparator;
 import java.util.List;
 
 public class StudentPanel {
 
+    private static final int SEARCH_LIMIT = 50;
+
     public static void showStudentMenu(CourseManager manager) {
 
         String[] options = {
@@ -83,37 +84,26 @@ public class StudentPanel {
             return;
         }
 
-        // ---- Table Model ----
-        String[] columns = {"ID", "Name", "Age", "Major", "Score"};
-        DefaultTableModel model = new DefaultTableModel(columns, 0);
+        // ---- Table Model (cells are read from the students as they are shown) ----
+        StudentTableModel model = new StudentTableModel(students);
 
         JTable table = new JTable(model);
         table.setEnabled(false);
         JScrollPane scrollPane = new JScrollPane(table);
 
-        // ---- Load Data ----
-        loadStudentsIntoTable(model, students);
-
         // ---- Buttons ----
         JButton btnSortId = new JButton("Sort by ID");
         JButton btnSortName = new JButton("Sort by Name");
         JButton btnSortScore = new JButton("Sort by Score");
         JButton btnClose = new JButton("Close");
 
-        btnSortId.addActionListener(e -> {
-            students.sort(Comparator.comparing(Student::getId));
-            loadStudentsIntoTable(model, students);
-        });
-
-        btnSortName.addActionListener(e -> {
-            students.sort(Comparator.comparing(Student::getName, String.CASE_INSENSITIVE_ORDER));
-            loadStudentsIntoTable(model, students);
-        });
-
-        btnSortScore.addActionListener(e -> {
-            students.sort(Comparator.comparingDouble(Student::getPerformanceScore).reversed());
-            loadStudentsIntoTable(model, students);
-        });
+        // sorting runs off the EDT; a cached order comes back at once
+        btnSortId.addActionListener(e -> model.setRowsInBackground(table, "Sorting students",
+                () -> manager.getStudentsSorted(StudentSort.ID)));
+        btnSortName.addActionListener(e -> model.setRowsInBackground(table, "Sorting students",
+                () -> manager.getStudentsSorted(StudentSort.NAME)));
+        btnSortScore.addActionListener(e -> model.setRowsInBackground(table, "Sorting students",
+                () -> manager.getStudentsSorted(StudentSort.SCORE)));
 
         btnClose.addActionListener(e -> SwingUtilities.getWindowAncestor(btnClose).dispose());
 
@@ -137,20 +127,6 @@ public class StudentPanel {
         dialog.setVisible(true);
     }
 
-    // ================= HELPER =================
-    private static void loadStudentsIntoTable(DefaultTableModel model, List<Student> students) {
-        model.setRowCount(0);
-        for (Student s : students) {
-            model.addRow(new Object[]{
-                    s.getId(),
-                    s.getName(),
-                    s.getAge(),
-                    s.getMajor(),
-                    s.getPerformanceScore()
-            });
-        }
-    }
-
     // ================= UPDATE STUDENT =================
     private static void updateStudent(CourseManager manager) {
 
@@ -217,7 +193,7 @@ public class StudentPanel {
             String name = JOptionPane.showInputDialog("Enter Student Name:");
             if (name == null || name.isBlank()) return;
 
-            List<Student> found = manager.findStudentsByName(name);
+            List<Student> found = manager.searchStudentsByName(name, SEARCH_LIMIT);
             if (found.isEmpty()) {
                 JOptionPane.showMessageDialog(null, "No students found.");
             } else {
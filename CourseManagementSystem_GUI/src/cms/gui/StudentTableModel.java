@@ -0,0 +1,29 @@
+package cms.gui;
+
+import cms.Student;
+
+import java.util.List;
+
+@SuppressWarnings("serial")
+class StudentTableModel extends ListTableModel<Student> {
+
+    StudentTableModel(List<Student> students) {
+        super(new String[]{"ID", "Name", "Age", "Major", "Score"}, students);
+    }
+
+    @Override
+    Object valueOf(Student s, int col) {
+        switch (col) {
+            case 0: return s.getId();
+            case 1: return s.getName();
+            case 2: return s.getAge();
+            case 3: return s.getMajor();
+            default: return s.getPerformanceScore();
+        }
+    }
+
+    @Override
+    public Class<?> getColumnClass(int col) {
+        return col == 2 ? Integer.class : col == 4 ? Double.class : String.class;
+    }
+}
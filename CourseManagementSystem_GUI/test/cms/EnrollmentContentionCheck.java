@@ -0,0 +1,99 @@
+package cms;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Contention check for enrollment: 64 threads enroll and unenroll random students in one
+ * small course at the same time. From CourseManagementSystem_GUI, after compiling src to bin:
+ * {@code javac -d out -cp bin test/cms/EnrollmentContentionCheck.java} then
+ * {@code java -cp bin:out cms.EnrollmentContentionCheck}. It exits with status 1 on the first problem.
+ *
+ * Checked after every call: the roster never holds more students than the capacity.
+ * Checked after each round: roster, enrolled count and the manager's reverse index agree,
+ * and replaying the change log into an empty manager gives the same roster in the same order.
+ */
+public class EnrollmentContentionCheck {
+    private static final int THREADS = 64;
+    private static final int ROUNDS = 10;
+    private static final int CALLS_PER_THREAD = 2000;
+    private static final int STUDENTS = 5000;
+    private static final int CAPACITY = 50;
+
+    public static void main(String[] args) throws Exception {
+        for (int round = 0; round < ROUNDS; round++) runRound(round);
+        System.out.println("OK: " + ROUNDS + " rounds of " + THREADS + " threads, never above capacity " + CAPACITY);
+    }
+
+    private static void runRound(int round) throws Exception {
+        File log = File.createTempFile("enroll-check", ".log");
+        log.deleteOnExit();
+        CourseManager manager = new CourseManager();
+        for (int i = 0; i < STUDENTS; i++) manager.addStudent(new Student("S" + i, "Student " + i, 20, "CS", 0));
+        manager.addCourse(new Course("HOT", "Popular Course", CAPACITY, ""));
+        ChangeJournal journal = new ChangeJournal(log.getPath());
+        manager.setJournal(journal);
+        Course course = manager.findCourseById("HOT");
+
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger enrolled = new AtomicInteger();
+        String[] failure = new String[1];
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            Random random = new Random(round * 1000L + t);
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int k = 0; k < CALLS_PER_THREAD && failure[0] == null; k++) {
+                    String id = "S" + random.nextInt(STUDENTS);
+                    if (random.nextInt(3) == 0) {
+                        if (manager.removeStudentFromCourse(id, "HOT")) enrolled.decrementAndGet();
+                    } else if (manager.enrollStudentInCourse(id, "HOT")) {
+                        enrolled.incrementAndGet();
+                    }
+                    int size = course.getEnrolledCount();
+                    if (size > CAPACITY) failure[0] = "overbooked: " + size + " students in " + CAPACITY + " seats";
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread t : threads) t.join();
+        journal.close();
+
+        if (failure[0] != null) fail(round, failure[0]);
+        int listed = course.getEnrolledStudentIds().size();
+        if (listed > CAPACITY) fail(round, "overbooked: " + listed + " students in " + CAPACITY + " seats");
+        if (listed != course.getEnrolledCount() || listed != enrolled.get())
+            fail(round, "roster lists " + listed + ", count says " + course.getEnrolledCount() + ", successful calls " + enrolled.get());
+        HashSet<String> roster = new HashSet<>(course.getEnrolledStudentIds());
+        if (roster.size() != listed) fail(round, "roster contains duplicates");
+        for (int i = 0; i < STUDENTS; i++) {
+            String id = "S" + i;
+            if (manager.getCoursesForStudent(id).contains(course) != roster.contains(id))
+                fail(round, "reverse index disagrees with the roster for " + id);
+        }
+
+        CourseManager replayed = new CourseManager();
+        for (int i = 0; i < STUDENTS; i++) replayed.addStudent(new Student("S" + i, "Student " + i, 20, "CS", 0));
+        replayed.addCourse(new Course("HOT", "Popular Course", CAPACITY, ""));
+        try (ChangeJournal copy = new ChangeJournal(log.getPath())) {
+            copy.replay(replayed);
+        }
+        if (!new ArrayList<>(course.getEnrolledStudentIds()).equals(replayed.findCourseById("HOT").getEnrolledStudentIds()))
+            fail(round, "replaying the change log gives a different roster or enrollment order");
+        if (!log.delete()) log.deleteOnExit();
+    }
+
+    private static void fail(int round, String problem) {
+        System.out.println("FAILED in round " + (round + 1) + ": " + problem);
+        System.exit(1);
+    }
+}